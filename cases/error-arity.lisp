@@ -0,0 +1,4 @@
+(DEFUN F (X Y) (PLUS X Y))
+(F 1 2)
+(F 1)
+(F 3 4)
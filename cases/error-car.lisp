@@ -0,0 +1,3 @@
+(CAR (QUOTE (1 2)))
+(CAR 1)
+(CAR (QUOTE (3)))
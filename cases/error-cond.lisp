@@ -0,0 +1,4 @@
+(DEFUN F (X) (COND ((LESS X 0) 0)))
+(F -1)
+(F 1)
+(F -2)
@@ -0,0 +1,3 @@
+(DEFUN F (L) (PCALL PLUS (CAR L) (QUOTIENT 1 0)))
+(F (QUOTE (1)))
+(F 1)
@@ -0,0 +1,2 @@
+(DEFUN F (X) (PCALL COND X))
+(F 1)
@@ -0,0 +1,2 @@
+(DEFUN CAR (X) X)
+(CAR (QUOTE (1)))
@@ -0,0 +1,3 @@
+(QUOTIENT 7 2)
+(QUOTIENT 7 0)
+(QUOTIENT 9 3)
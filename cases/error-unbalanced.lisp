@@ -0,0 +1,3 @@
+(DEFUN F (X) (PLUS X 1))
+(F 1)
+(F (F 1)
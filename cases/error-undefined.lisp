@@ -0,0 +1,4 @@
+(DEFUN F (X) (PLUS X 1))
+(F 1)
+(G 1)
+(F 2)
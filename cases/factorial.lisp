@@ -0,0 +1,18 @@
+(DEFUN FACT (N) (COND ((EQ N 0) 1) (T (TIMES N (FACT (MINUS N 1))))))
+(FACT 0)
+(FACT 20)
+(FACT 21)
+(FACT 50)
+(DEFUN FACTLOOP (N ACC) (COND ((EQ N 0) ACC) (T (FACTLOOP (MINUS N 1) (TIMES N ACC)))))
+(FACTLOOP 100 1)
+(EQ (FACT 30) (FACTLOOP 30 1))
+(PLUS 9223372036854775807 1)
+(MINUS -9223372036854775808 1)
+(MINUS (PLUS 9223372036854775807 1) 1)
+(QUOTIENT (FACT 25) (FACT 23))
+(REMAINDER (FACT 25) 1000000007)
+(QUOTIENT -9223372036854775808 -1)
+(LESS (FACT 20) (FACT 21))
+(GREATER (FACT 21) (TIMES (FACT 20) 21))
+(EQ (FACT 21) (TIMES (FACT 20) 21))
+(INT (FACT 40))
@@ -0,0 +1,20 @@
+(DEFMEMO FIB (N) (COND ((LESS N 2) N) (T (PLUS (FIB (MINUS N 1)) (FIB (MINUS N 2))))))
+(FIB 30)
+(MEMOSTATS FIB)
+(FIB 30)
+(MEMOSTATS FIB)
+(FIB 90)
+(FIB 100)
+(DEFMEMO CHOOSE (N K) (COND ((EQ K 0) 1) ((EQ K N) 1) (T (PLUS (CHOOSE (MINUS N 1) (MINUS K 1)) (CHOOSE (MINUS N 1) K)))))
+(CHOOSE 60 30)
+(DEFUN STEP (X) (PLUS X 1))
+(DEFMEMO COUNTUP (N) (COND ((EQ N 0) 0) (T (STEP (COUNTUP (MINUS N 1))))))
+(COUNTUP 10)
+(MEMOSTATS COUNTUP)
+(DEFUN STEP (X) (PLUS X 2))
+(MEMOSTATS COUNTUP)
+(COUNTUP 10)
+(DEFMEMO PAIRS (L) (COND ((NULL L) NIL) (T (CONS (CONS (CAR L) (CAR L)) (PAIRS (CDR L))))))
+(PAIRS (QUOTE (1 2 3)))
+(PAIRS (QUOTE (1 2 3)))
+(MEMOSTATS PAIRS)
@@ -0,0 +1,15 @@
+(DEFUN PFIB (N) (COND ((LESS N 2) N) (T (PCALL PLUS (PFIB (MINUS N 1)) (PFIB (MINUS N 2))))))
+(PFIB 18)
+(DEFUN ADD3 (A B C) (PLUS A (PLUS B C)))
+(DEFUN SPREAD (X) (PCALL ADD3 X (TIMES X 2) (TIMES X 3)))
+(SPREAD 5)
+(PCALL ADD3 1 2 3)
+(PCALL CONS 1 (QUOTE (2 3)))
+(PCALL CAR (QUOTE (4 5)))
+(PCALL TIMES (PFIB 10) (PFIB 11))
+(DEFUN PTAK (X Y Z) (COND ((LESS Y X) (PCALL PTAK (PTAK (MINUS X 1) Y Z) (PTAK (MINUS Y 1) Z X) (PTAK (MINUS Z 1) X Y))) (T Z)))
+(PTAK 12 8 4)
+(DEFUN PSUM (L) (COND ((NULL L) 0) (T (PCALL PLUS (CAR L) (PSUM (CDR L))))))
+(PSUM (QUOTE (1 2 3 4 5 6 7 8 9 10)))
+(DEFUN BIG (N) (PCALL TIMES (PLUS 9223372036854775807 N) 2))
+(BIG 1)
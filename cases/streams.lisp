@@ -0,0 +1,15 @@
+(DEFUN FROM (N) (SCONS N (FROM (PLUS N 1))))
+(DEFUN TAKE (N S) (COND ((EQ N 0) NIL) (T (CONS (CAR S) (TAKE (MINUS N 1) (SCDR S))))))
+(TAKE 10 (FROM 1))
+(DEFUN SFILTER (P S) (COND ((EQ (REMAINDER (CAR S) P) 0) (SFILTER P (SCDR S))) (T (SCONS (CAR S) (SFILTER P (SCDR S))))))
+(DEFUN SIEVE (S) (SCONS (CAR S) (SIEVE (SFILTER (CAR S) (SCDR S)))))
+(TAKE 15 (SIEVE (FROM 2)))
+(DEFUN SMAP2 (S) (SCONS (TIMES (CAR S) (CAR S)) (SMAP2 (SCDR S))))
+(TAKE 8 (SMAP2 (FROM 1)))
+(DEFUN NTH (N S) (COND ((EQ N 0) (CAR S)) (T (NTH (MINUS N 1) (SCDR S)))))
+(NTH 10000 (FROM 0))
+(FORCE (DELAY (PLUS 1 2)))
+(DEFUN LATER (X) (DELAY (TIMES X X)))
+(FORCE (LATER 12))
+(DEFUN TWICE (P) (CONS (FORCE P) (FORCE P)))
+(TWICE (LATER 7))
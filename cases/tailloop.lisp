@@ -0,0 +1,13 @@
+(DEFUN COUNT (N ACC) (COND ((EQ N 0) ACC) (T (COUNT (MINUS N 1) (PLUS ACC 1)))))
+(COUNT 100000 0)
+(DEFUN EVENP (N) (COND ((EQ N 0) T) (T (ODDP (MINUS N 1)))))
+(DEFUN ODDP (N) (COND ((EQ N 0) NIL) (T (EVENP (MINUS N 1)))))
+(EVENP 50001)
+(ODDP 50001)
+(DEFUN BUILD (N L) (COND ((EQ N 0) L) (T (BUILD (MINUS N 1) (CONS N L)))))
+(DEFUN LENGTH (L N) (COND ((NULL L) N) (T (LENGTH (CDR L) (PLUS N 1)))))
+(LENGTH (BUILD 20000 NIL) 0)
+(DEFUN SUM (L ACC) (COND ((NULL L) ACC) (T (SUM (CDR L) (PLUS ACC (CAR L))))))
+(SUM (BUILD 20000 NIL) 0)
+(DEFUN REV (L ACC) (COND ((NULL L) ACC) (T (REV (CDR L) (CONS (CAR L) ACC)))))
+(REV (BUILD 10 NIL) NIL)
@@ -1,23 +1,57 @@
 import lexer.*;
 import parser.*;
+import vm.ContinuationMachine;
+import vm.Jit;
+import vm.Machine;
+import server.Batch;
+import server.Server;
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
 import java.math.BigInteger;
+import java.util.List;
+import java.util.function.Function;
 
 /**
  * File: LispInterpreter.java
  * 
  * This is the driver file for the Lisp Interpreter project
  * 
- * It takes input from stdin and evaluates it line by line.
- * One should note that if muliple statements are on the same line,
- * their results will not be output until all have executed
- * successfully.
+ * It takes input from stdin, or from a memory-mapped file named on
+ * the command line, and evaluates it statement by statement.
+ * Each result is printed as soon as its statement has been read and
+ * evaluated, so output starts before the whole input has arrived.
+ * 
+ * Programs are run by the tree-walking evaluator unless another engine
+ * is chosen with "-e": "-e vm" compiles each statement to bytecode and
+ * runs it on the virtual machine instead, and "-e cek" runs it on an
+ * evaluator which keeps its continuations on the heap, so that deep
+ * recursion is limited by memory rather than by the Java stack. The
+ * tree-walking evaluator compiles a function to JVM bytecode once it
+ * has been called "-j N" times (1000 unless given; "-j 0" never
+ * compiles anything).
+ * 
+ * With "-p N", statements which do not depend on one another are run
+ * on N threads at once, by whichever engine is chosen; their values
+ * are still printed in order.
+ * 
+ * "-l FILE" runs a library program first, quietly, and every session
+ * may call the functions it defines. "-s ADDRESS" starts a server on a
+ * Unix domain socket of that path, or on that port of the loopback
+ * interface, instead of running a program: each connection is a
+ * session of its own, whose results are written back to it.
+ * 
+ * "-b PATH" runs every program in a directory, or named in a manifest,
+ * each in a session of its own, "-p N" (or one per processor) at a
+ * time, writing the output of each next to it, and reports how long
+ * they took.
  * 
  * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
  * @since 2012-11-01
- * @version 2012-11-01
+ * @version 2026-10-18
  */
 
 class LispInterpreter { 
@@ -29,26 +63,148 @@ class LispInterpreter {
 	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
 	 * @since 2012-11-01
-	 * @version 2012-11-01
+	 * @version 2026-10-18
 	 * 
-	 * @param args Any command line arguments. None are used as of this version.
+	 * @param args Any command line arguments. "-d" turns on debug output, "-e"
+	 *             followed by "tree", "vm" or "cek" picks the engine, "-j" followed by
+	 *             a number sets the JIT threshold, "-p" followed by a
+	 *             number runs independent statements on that many threads,
+	 *             "-l" followed by a file loads a library, "-s" followed
+	 *             by a socket path or port serves sessions over it,
+	 *             "-b" followed by a directory or manifest runs the
+	 *             programs in it,
+	 *             and any other argument
+	 *             names a program file to read instead of stdin.
 	 */
 	
-    public static void main(String[] args) {
-    	try{
-	    	Lexer l = new Lexer(System.in);
-	    	Parser p = new Parser(l.getTokens());
-	    	// System.out.println(p.printParseTree());
-			p.evaluate();
+	public static void main(String[] args) {
+		boolean debug = false;
+		String file = null;
+		String engine = "tree";
+		int threads = 0;
+		String library = null;
+		String address = null;
+		String batch = null;
+		for ( int i = 0; i < args.length; i++ ){
+			if ( args[i].matches("-d") ){
+				debug = true;
+			} else if ( args[i].matches("-e") && i + 1 < args.length ){
+				engine = args[++i];
+			} else if ( args[i].matches("-j") && i + 1 < args.length ){
+				if ( !args[++i].matches("[0-9]+") ){
+					System.out.println("Error! Invalid JIT threshold: " + args[i]);
+					System.exit(3);
+					return;
+				}
+				Jit.setThreshold(Integer.parseInt(args[i]));
+			} else if ( args[i].matches("-p") && i + 1 < args.length ){
+				if ( !args[++i].matches("[0-9]+") ){
+					System.out.println("Error! Invalid number of threads: " + args[i]);
+					System.exit(3);
+					return;
+				}
+				threads = Integer.parseInt(args[i]);
+			} else if ( args[i].matches("-l") && i + 1 < args.length ){
+				library = args[++i];
+			} else if ( args[i].matches("-s") && i + 1 < args.length ){
+				address = args[++i];
+			} else if ( args[i].matches("-b") && i + 1 < args.length ){
+				batch = args[++i];
+			} else {
+				file = args[i];
+			}
+		}
+
+		if ( !engine.matches("tree|vm|cek") ){
+			System.out.println("Error! Unknown engine: " + engine);
+			System.exit(3);
+			return;
+		}
+
+		Function <Interpreter, Scheduler.Engine> engines;
+		if ( engine.equals("vm") ){
+			engines = s -> new Machine(s)::run;
+		} else if ( engine.equals("cek") ){
+			engines = s -> new ContinuationMachine(s)::run;
+		} else {
+			engines = s -> s::run;
+		}
+
+		Lexer l;
+		Lexer lib;
+		try{
+			lib = library == null ? null : new MappedLexer(new File(library));
+		} catch (IOException e){
+			System.out.println("Error! Cannot read file: " + library);
+			System.exit(3);
+			return;
+		}
+		try{
+			l = file == null ? new Lexer(System.in) : new MappedLexer(new File(file));
+		} catch (IOException e){
+			System.out.println("Error! Cannot read file: " + file);
+			System.exit(3);
+			return;
+		}
+
+		try{
+			Environment functions = null;
+			if ( lib != null ){
+				Interpreter quiet = new Interpreter(new PrintStream(OutputStream.nullOutputStream()));
+				new Parser(lib, quiet).evaluate();
+				functions = quiet.environment();
+				functions.seal();
+			}
+
+			if ( address != null ){
+				try{
+					new Server(functions, engines, debug).serve(Server.address(address));
+				} catch (IOException e){
+					System.out.println("Error! Cannot listen on: " + address);
+					if ( debug ){
+						System.out.println(e.getMessage());
+					}
+					System.exit(3);
+				}
+				return;
+			}
+
+			if ( batch != null ){
+				List <File> programs;
+				try{
+					programs = Batch.programs(new File(batch));
+				} catch (IOException e){
+					System.out.println("Error! Cannot read file: " + batch);
+					System.exit(3);
+					return;
+				}
+				int n = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+				if ( new Batch(functions, engines, n, debug).run(programs, System.out) > 0 ){
+					System.exit(3);
+				}
+				return;
+			}
+
+			Interpreter session = new Interpreter(System.out, functions);
+			Parser p = new Parser(l, session);
+			if ( threads > 0 ){
+				new Scheduler(session, threads).evaluate(p, () -> engines.apply(session));
+			} else if ( engine.equals("vm") ){
+				new Machine(session).evaluate(p);
+			} else if ( engine.equals("cek") ){
+				new ContinuationMachine(session).evaluate(p);
+			} else {
+				p.evaluate();
+			}
 		} catch (IOException e){
 			System.out.println("End of input...");
-    	} catch (Exception e){	
+		} catch (Exception e){	
 			System.out.println("Error!");
-			if ( args.length > 0 && args[0].matches("-d") ){
-    			System.out.println(e.getMessage());
-	    		e.printStackTrace();
+			if ( debug ){
+				System.out.println(e.getMessage());
+				e.printStackTrace();
 			}
-    		System.exit(3);
-    	}
-    }
-}
\ No newline at end of file
+			System.exit(3);
+		}
+	}
+}
@@ -0,0 +1,96 @@
+package lexer;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+/**
+ * File: Bench.java
+ *
+ * The benchmark behind the streaming lexer, so that its numbers can be
+ * measured again on any machine:
+ *
+ *	java -Xmx2g -cp ./bin lexer.Bench [MB ...]
+ *
+ * It lexes generated programs of each size (10, 50 and 100 MB unless
+ * given) and reports the time per byte, which should stay flat as the
+ * input grows. So that the sizes are compared on compiled code rather
+ * than on how far HotSpot has got, the lexer is warmed up on the first
+ * input before anything is timed, and each size is then lexed three
+ * times and the best of them reported.
+ *
+ * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+ * @since 2026-10-18
+ * @version 2026-10-18
+ *
+ * @see Lexer
+ */
+
+public class Bench{
+
+	private static final int RUNS = 3;
+
+	/**
+	 * Function: main
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param args The sizes of input to lex, in megabytes
+	 */
+	public static void main(String[] args) throws IOException{
+		int[] sizes = args.length > 0 ? new int[args.length] : new int[]{ 10, 50, 100 };
+		for ( int i = 0; i < args.length; i++ ){
+			sizes[i] = Integer.parseInt(args[i]);
+		}
+
+		StringBuilder unit = new StringBuilder();
+		for ( int i = 0; i < 1000; i++ ){
+			unit.append("(defun fib (n) (cond ((less n 2) n) (t (plus (fib (minus n 1)) (fib (minus n -2))))))\n");
+		}
+		byte[] chunk = unit.toString().getBytes();
+
+		boolean warm = false;
+		for ( int mb : sizes ){
+			int size = mb << 20;
+			byte[] data = new byte[size];
+			for ( int off = 0; off < size; off += chunk.length ){
+				System.arraycopy(chunk, 0, data, off, Math.min(chunk.length, size - off));
+			}
+			if ( !warm ){
+				for ( int r = 0; r < RUNS; r++ ){
+					lex(data);
+				}
+				warm = true;
+			}
+			long best = Long.MAX_VALUE;
+			long tokens = 0;
+			for ( int r = 0; r < RUNS; r++ ){
+				long start = System.nanoTime();
+				tokens = lex(data);
+				best = Math.min(best, System.nanoTime() - start);
+			}
+			System.out.printf("lex %d MB: %d tokens, %.2f ns/byte%n", mb, tokens, (double) best / size);
+		}
+	}
+
+	/**
+	 * Function: lex
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param data A program
+	 *
+	 * @return The number of tokens in it
+	 */
+	private static long lex(byte[] data) throws IOException{
+		Lexer l = new Lexer(new ByteArrayInputStream(data));
+		long tokens = 0;
+		while ( l.next() != Lexer.END ){
+			tokens++;
+		}
+		return tokens;
+	}
+}
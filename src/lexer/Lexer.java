@@ -1,151 +1,319 @@
 package lexer;
 
 import java.io.*;
-import java.util.*;
 
 /**
  * File: Lexer
- * 
+ *
  * This is the main class for the Lisp Lexical Analalyzer. It's job is to
- * break apart the meaningful symbols in a Lisp program and put them
- * into a vector for parsing.
- * 
+ * break apart the meaningful symbols in a Lisp program and hand them
+ * on, as integer codes, for parsing.
+ *
+ * The input is consumed as a stream of characters in a single pass. Each
+ * character is looked at exactly once, folded to upper case, and fed to a
+ * small state machine which emits a token whenever a literal ends or a
+ * symbol is seen. Nothing is ever re-scanned, so the cost per input byte
+ * stays the same no matter how large the program is.
+ *
  * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
  * @since 2012-10-01
- * @version 2012-11-01
- */	
+ * @version 2026-10-18
+ */
 
 public class Lexer{
 
-	private String programString = "";
-	private Vector <String> tokenArray = new Vector <String> ();
+	public static final int LITERAL = 0;
+	public static final int LEFT_PAREN = -1;
+	public static final int RIGHT_PAREN = -2;
+	public static final int DOT = -3;
+	public static final int END = -4;
+
+	private static final int BUFFER_SIZE = 8192;
+
+	private Reader input;
+	private char[] buffer = new char[BUFFER_SIZE];
+	private int position = 0;
+	private int limit = 0;
+	private StringBuilder literal = new StringBuilder();
+	private Tokens tokenArray = null;
+	protected int kind = END;
 
 	/**
 	 * Function: Lexer
-	 * 
-	 * Constructor which can take a stream as input. It reads the stream and
-	 * tokenizes it appropriately
-	 * 
+	 *
+	 * Constructor which can take a stream as input. The stream is read
+	 * lazily as tokens are requested.
+	 *
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
 	 * @since 2012-11-01
-	 * @version 2012-11-01
-	 * 
+	 * @version 2026-10-18
+	 *
 	 * @param stream An input stream
 	 */
 
-	public Lexer(InputStream stream) throws IOException{
-		byte[] bytes = new byte[1024];
-		while (stream.available() > 0){
-	        stream.read(bytes, 0, 1024);
-	        programString = programString.concat(new String(bytes)).trim().toUpperCase();
-        }
-        tokenArray = tokenize(programString);
+	public Lexer(InputStream stream){
+		this(new InputStreamReader(stream));
+	}
+
+	/**
+	 * Function: Lexer
+	 *
+	 * Constructor which reads the program from any character source
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param reader The source of the program text
+	 */
+
+	public Lexer(Reader reader){
+		input = reader;
 	}
-	
+
 	/**
 	 * Function: Lexer
-	 * 
+	 *
+	 * Constructor for lexers which supply their own input
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 */
+
+	protected Lexer(){
+		input = null;
+	}
+
+	/**
+	 * Function: Lexer
+	 *
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
 	 * @since 2012-11-01
-	 * @version 2012-11-01
-	 * 
+	 * @version 2026-10-18
+	 *
 	 * @param s A string of the program to be analyzed
 	 */
 
 	public Lexer(String s){
-		programString = s;
-		tokenArray = tokenize(programString);
+		this(new StringReader(s));
 	}
-	
+
 	/**
 	 * Function: getTokens
-	 * 
-	 * Returns out the vector of tokens gleaned from the input program
-	 * 
+	 *
+	 * Reads whatever is left of the input and returns the codes of all
+	 * tokens gleaned from the program
+	 *
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
 	 * @since 2012-11-01
-	 * @version 2012-11-01
-	 * 
-	 * @return The vector of string tokens
+	 * @version 2026-10-18
+	 *
+	 * @return The token codes
+	 *
+	 * @throws IOException If the underlying input cannot be read
+	 *
+	 * @see code
 	 */
 
-	public Vector <String> getTokens(){
+	public Tokens getTokens() throws IOException{
+		if ( tokenArray == null ){
+			tokenArray = new Tokens();
+			while ( next() != END ){
+				tokenArray.add(code());
+			}
+		}
 		return tokenArray;
 	}
-	
+
 	/**
-	 * Function: tokenize
-	 * 
-	 * Splits a string up into chunks meaninful according to Lisp semantics
-	 * 
+	 * Function: nextToken
+	 *
+	 * Scans forward to the next token and returns its text
+	 *
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
-	 * @since 2012-11-01
-	 * @version 2012-11-01
-	 * 
-	 * @param s A string to be separated according to the Lisp semantics
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @return The next token, or null once the input is exhausted
+	 *
+	 * @throws IOException If the underlying input cannot be read
+	 *
+	 * @see next
 	 */
 
-	private Vector <String> tokenize(String s){
-		int i = 0;
-		Vector <String> tokens = new Vector <String>();
-		if ( s.length() == 1 ){
-			tokens.add(s);
-			return tokens;
-		}
-		while (  i < s.length() ){
-			int j = i + 1;
-			if ( s.substring(i, j).matches(LexerPatterns.LETTER) || s.substring(i, j).matches(LexerPatterns.NUMERIC_ATOM) ){
-				while ( s.substring(i,j + 1).matches(LexerPatterns.LITERAL) || s.substring(i, j + 1).matches(LexerPatterns.NUMERIC_ATOM) ){
-					j++;
+	public String nextToken() throws IOException{
+		return next() == END ? null : text();
+	}
+
+	/**
+	 * Function: next
+	 *
+	 * Scans forward to the next meaningful chunk of the input according to
+	 * Lisp semantics. Literal words and numbers (with their sign) are single
+	 * tokens while parentheses and dots are tokens of their own. Whitespace
+	 * and any other characters simply separate tokens.
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @return The kind of the token, END once the input is exhausted
+	 *
+	 * @throws IOException If the underlying input cannot be read
+	 */
+
+	public int next() throws IOException{
+		int c;
+		while ( (c = read()) >= 0 ){
+			if ( c == '(' ){
+				return kind = LEFT_PAREN;
+			} else if ( c == ')' ){
+				return kind = RIGHT_PAREN;
+			} else if ( c == '.' ){
+				return kind = DOT;
+			} else if ( isLiteralChar(c) || c == '+' || c == '-' ){
+				literal.setLength(0);
+				literal.append((char) c);
+				while ( (c = peek()) >= 0 && isLiteralChar(c) ){
+					literal.append((char) c);
+					position++;
 				}
-				tokens.add(s.substring(i,j));
-			} else if ( s.substring(i, j).matches(LexerPatterns.SYMBOL) ){
-				tokens.add(s.substring(i,j));
+				return kind = LITERAL;
 			}
-			i = j;
 		}
-		return tokens;
+		return kind = END;
 	}
-	
+
 	/**
-	 * Function: endOfExpression
-	 * 
-	 * This function finds the index in a given string vector which denotes the closing
-	 * parenthesis of a lisp expression
-	 * 
+	 * Function: text
+	 *
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
-	 * @since 2012-11-01
-	 * @version 2012-11-01
-	 * 
-	 * @deprecated Not necessary as of this version. Moved to the parser to be more effective overall
-	 * 
-	 * @param s A string vector which will be analyzed. The first character must be the left parenthesis
-	 * 
-	 * @throws IllegalArgumentException If the passed vector is not a parenthetical statement
-	 * @throws ArrayIndexOutOfBounds If the expression is malformed and the statement has no closing parenthesis
-	 */	
-	
-	private int endOfExpression(Vector <String> s) throws IllegalArgumentException, ArrayIndexOutOfBoundsException{
-		if ( ! s.get(0).matches("[(]") ){
-			throw new IllegalArgumentException("ERROR.");
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @return The upper-cased text of the token last returned by next
+	 */
+
+	public String text(){
+		return kind == LITERAL ? literal.toString() : symbolText(kind);
+	}
+
+	/**
+	 * Function: code
+	 *
+	 * Gives the integer code of the current token. Literals are interned
+	 * in the symbol table and coded by their id; the parentheses and the
+	 * dot are coded by their (negative) kind.
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @return The code of the token last returned by next
+	 *
+	 * @see Symbols
+	 */
+
+	public int code(){
+		return kind == LITERAL ? Symbols.intern(literal) : kind;
+	}
+
+	/**
+	 * Function: symbolText
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param k A token kind other than LITERAL
+	 *
+	 * @return The fixed text of that kind of token
+	 */
+
+	protected static String symbolText(int k){
+		switch ( k ){
+			case LEFT_PAREN: return "(";
+			case RIGHT_PAREN: return ")";
+			case DOT: return ".";
+			default: return null;
 		}
-		int openPairs = 1;
-		int end = 1;
-		while ( openPairs > 0 ){
-			if ( end >= s.size() ){
-				throw new ArrayIndexOutOfBoundsException("Error: Unbalanced parentheses");
-			}
-			if ( s.get(end).matches("[)]") ){
-				openPairs--;
-			} else if ( s.get(end).matches("[(]") ){
-				openPairs++;
-			}
-			if ( openPairs == 0 ){
-				break;
-			} else {
-				end++;
+	}
+
+	/**
+	 * Function: read
+	 *
+	 * Consumes a single character from the input, folded to upper case
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @return The character, or -1 at the end of the input
+	 */
+
+	private int read() throws IOException{
+		int c = peek();
+		if ( c >= 0 ){
+			position++;
+		}
+		return c;
+	}
+
+	/**
+	 * Function: peek
+	 *
+	 * Looks at the next character of the input, folded to upper case,
+	 * refilling the buffer from the reader when it runs dry
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @return The character, or -1 at the end of the input
+	 */
+
+	private int peek() throws IOException{
+		if ( position >= limit ){
+			limit = input.read(buffer, 0, BUFFER_SIZE);
+			position = 0;
+			if ( limit <= 0 ){
+				limit = 0;
+				return -1;
 			}
 		}
-		return end;
+		return fold(buffer[position]);
+	}
+
+	/**
+	 * Function: fold
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param c A character of the program text
+	 *
+	 * @return The character folded to upper case
+	 */
+
+	protected static int fold(int c){
+		return ( c >= 'a' && c <= 'z' ) ? c - ('a' - 'A') : c;
+	}
+
+	/**
+	 * Function: isLiteralChar
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param c An upper-cased character
+	 *
+	 * @return True if the character may appear inside a literal or numeric atom
+	 */
+
+	protected static boolean isLiteralChar(int c){
+		return ( c >= 'A' && c <= 'Z' ) || ( c >= '0' && c <= '9' );
 	}
-}
\ No newline at end of file
+}
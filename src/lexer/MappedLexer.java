@@ -0,0 +1,214 @@
+package lexer;
+
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * File: MappedLexer.java
+ *
+ * A lexer over a program file which is memory-mapped rather than read.
+ * The file is mapped a window at a time so programs larger than a single
+ * mapping can be scanned, and a token is only ever described by where it
+ * lies in the mapping: its kind, its offset in the file and its length.
+ * The text of a literal is not copied out of the mapping until someone
+ * actually asks for it.
+ *
+ * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+ * @since 2026-10-18
+ * @version 2026-10-18
+ */
+
+public class MappedLexer extends Lexer{
+
+	private static final long WINDOW_SIZE = 1L << 28;
+
+	private FileChannel channel;
+	private long size;
+	private MappedByteBuffer window;
+	private long windowStart;
+	private int position;
+	private int tokenStart;
+	private int tokenLength;
+
+	/**
+	 * Function: MappedLexer
+	 *
+	 * Opens and maps the first window of the given program file
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param f The program file
+	 *
+	 * @throws IOException If the file cannot be opened or mapped
+	 */
+
+	public MappedLexer(File f) throws IOException{
+		channel = FileChannel.open(f.toPath(), StandardOpenOption.READ);
+		size = channel.size();
+		map(0);
+	}
+
+	/**
+	 * Function: next
+	 *
+	 * Scans the mapping for the next token. The rules are the same as for
+	 * the character lexer; only the position and length of a literal are
+	 * recorded.
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @return The kind of the token, END once the file is exhausted
+	 *
+	 * @throws IOException If a further window of the file cannot be mapped
+	 */
+
+	public int next() throws IOException{
+		while ( true ){
+			if ( position >= window.limit() && !remap(position) ){
+				return kind = END;
+			}
+			int c = fold(window.get(position++));
+			if ( c == '(' ){
+				return kind = LEFT_PAREN;
+			} else if ( c == ')' ){
+				return kind = RIGHT_PAREN;
+			} else if ( c == '.' ){
+				return kind = DOT;
+			} else if ( isLiteralChar(c) || c == '+' || c == '-' ){
+				tokenStart = position - 1;
+				while ( true ){
+					if ( position >= window.limit() ){
+						// The literal runs over the window edge, so slide the window back to its start
+						int scanned = position - tokenStart;
+						if ( !remap(tokenStart) ){
+							break;
+						}
+						tokenStart = 0;
+						position = scanned;
+						continue;
+					}
+					if ( !isLiteralChar(fold(window.get(position))) ){
+						break;
+					}
+					position++;
+				}
+				tokenLength = position - tokenStart;
+				return kind = LITERAL;
+			}
+		}
+	}
+
+	/**
+	 * Function: text
+	 *
+	 * Copies the current token out of the mapping, folding case as it goes
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @return The upper-cased text of the token last returned by next
+	 */
+
+	public String text(){
+		if ( kind != LITERAL ){
+			return symbolText(kind);
+		}
+		char[] chars = new char[tokenLength];
+		for ( int i = 0; i < tokenLength; i++ ){
+			chars[i] = (char) fold(window.get(tokenStart + i));
+		}
+		return new String(chars);
+	}
+
+	/**
+	 * Function: code
+	 *
+	 * Interns the current literal straight from the mapping, so a String
+	 * is only made for symbols that have not been seen before
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @return The code of the token last returned by next
+	 */
+
+	public int code(){
+		return kind == LITERAL ? Symbols.intern(window, tokenStart, tokenLength) : kind;
+	}
+
+	/**
+	 * Function: offset
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @return The offset in the file of the current literal
+	 */
+
+	public long offset(){
+		return windowStart + tokenStart;
+	}
+
+	/**
+	 * Function: length
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @return The length in bytes of the current literal
+	 */
+
+	public int length(){
+		return tokenLength;
+	}
+
+	/**
+	 * Function: remap
+	 *
+	 * Moves the window so that it begins at the given position of the
+	 * current window, if there is anything left of the file to map there
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param from A position relative to the current window
+	 *
+	 * @return False if the window already reaches the end of the file
+	 */
+
+	private boolean remap(int from) throws IOException{
+		if ( windowStart + window.limit() >= size ){
+			channel.close();
+			return false;
+		}
+		map(windowStart + from);
+		return true;
+	}
+
+	/**
+	 * Function: map
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param start The offset in the file the new window begins at
+	 */
+
+	private void map(long start) throws IOException{
+		windowStart = start;
+		window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW_SIZE, size - start));
+		position = 0;
+	}
+}
@@ -0,0 +1,244 @@
+package lexer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * File: Symbols.java
+ *
+ * The global symbol table. Every literal of every program is interned here
+ * exactly once and is known from then on by a small integer id, so that
+ * later stages can compare symbols with == on ints instead of comparing
+ * strings. Ids are handed out densely from zero and are never reused.
+ *
+ * Lookups do not lock: a probe that misses (or that sees a stale table
+ * while another thread is growing it) falls through to a synchronized
+ * insert which checks again before adding anything. An insert ends by
+ * writing both tables again, so that the entry is published with them;
+ * and since an id can reach a thread by a racy probe, before that write
+ * is seen, a name which is not there yet is looked up under the lock.
+ *
+ * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+ * @since 2026-10-18
+ * @version 2026-10-18
+ */
+
+public final class Symbols{
+
+	private static final class Entry{
+		final String name;
+		final int hash;
+		final int id;
+
+		Entry(String n, int h, int i){
+			name = n;
+			hash = h;
+			id = i;
+		}
+	}
+
+	private static volatile Entry[] table = new Entry[1024];
+	private static volatile Entry[] byId = new Entry[1024];
+	private static int count = 0;
+
+	public static final int NIL = intern("NIL");
+	public static final int T = intern("T");
+
+	private Symbols(){}
+
+	/**
+	 * Function: intern
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param s The (already upper-cased) name of a symbol
+	 *
+	 * @return The id of the symbol
+	 */
+
+	public static int intern(String s){
+		return intern((CharSequence) s);
+	}
+
+	/**
+	 * Function: intern
+	 *
+	 * Interns a symbol from a character buffer, only making a String of it
+	 * the first time the symbol is seen
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param s The (already upper-cased) name of a symbol
+	 *
+	 * @return The id of the symbol
+	 */
+
+	public static int intern(CharSequence s){
+		int h = 0;
+		for ( int i = 0; i < s.length(); i++ ){
+			h = 31 * h + s.charAt(i);
+		}
+		Entry[] t = table;
+		for ( int i = h & (t.length - 1); t[i] != null; i = (i + 1) & (t.length - 1) ){
+			if ( t[i].hash == h && t[i].name.contentEquals(s) ){
+				return t[i].id;
+			}
+		}
+		return insert(s.toString(), h);
+	}
+
+	/**
+	 * Function: intern
+	 *
+	 * Interns a symbol straight out of a byte buffer, folding it to upper
+	 * case. No String is made unless the symbol has never been seen before.
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param b The buffer holding the symbol
+	 * @param offset Where the symbol starts in the buffer
+	 * @param length The length of the symbol in bytes
+	 *
+	 * @return The id of the symbol
+	 */
+
+	public static int intern(ByteBuffer b, int offset, int length){
+		int h = 0;
+		for ( int i = 0; i < length; i++ ){
+			h = 31 * h + Lexer.fold(b.get(offset + i));
+		}
+		Entry[] t = table;
+		for ( int i = h & (t.length - 1); t[i] != null; i = (i + 1) & (t.length - 1) ){
+			if ( t[i].hash == h && sameName(t[i].name, b, offset, length) ){
+				return t[i].id;
+			}
+		}
+		char[] chars = new char[length];
+		for ( int i = 0; i < length; i++ ){
+			chars[i] = (char) Lexer.fold(b.get(offset + i));
+		}
+		return insert(new String(chars), h);
+	}
+
+	/**
+	 * Function: name
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param id The id of an interned symbol
+	 *
+	 * @return The name of the symbol
+	 */
+
+	public static String name(int id){
+		Entry[] b = byId;
+		Entry e = id < b.length ? b[id] : null;
+		return e != null ? e.name : published(id).name;
+	}
+
+	/**
+	 * Function: published
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param id The id of an interned symbol
+	 *
+	 * @return Its entry, read under the lock it was added under
+	 */
+
+	private static synchronized Entry published(int id){
+		return byId[id];
+	}
+
+	/**
+	 * Function: size
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @return The number of symbols interned so far
+	 */
+
+	public static synchronized int size(){
+		return count;
+	}
+
+	/**
+	 * Function: insert
+	 *
+	 * Adds a symbol under the lock, unless another thread got there first
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param s The name of the symbol
+	 * @param h The hash of the name
+	 *
+	 * @return The id of the symbol
+	 */
+
+	private static synchronized int insert(String s, int h){
+		Entry[] t = table;
+		int i;
+		for ( i = h & (t.length - 1); t[i] != null; i = (i + 1) & (t.length - 1) ){
+			if ( t[i].hash == h && t[i].name.equals(s) ){
+				return t[i].id;
+			}
+		}
+		Entry e = new Entry(s, h, count);
+		if ( count == byId.length ){
+			Entry[] grown = new Entry[count * 2];
+			System.arraycopy(byId, 0, grown, 0, count);
+			byId = grown;
+		}
+		byId[count++] = e;
+		if ( count * 2 > t.length ){
+			Entry[] grown = new Entry[t.length * 2];
+			for ( int j = 0; j < count; j++ ){
+				int k;
+				for ( k = byId[j].hash & (grown.length - 1); grown[k] != null; k = (k + 1) & (grown.length - 1) ){}
+				grown[k] = byId[j];
+			}
+			table = grown;
+		} else {
+			t[i] = e;
+			// Publishes the entry, in both tables, to every thread which reads them after this
+			table = t;
+		}
+		byId = byId;
+		return e.id;
+	}
+
+	/**
+	 * Function: sameName
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @return True if the bytes, once folded, spell out the given name
+	 */
+
+	private static boolean sameName(String name, ByteBuffer b, int offset, int length){
+		if ( name.length() != length ){
+			return false;
+		}
+		for ( int i = 0; i < length; i++ ){
+			if ( name.charAt(i) != Lexer.fold(b.get(offset + i)) ){
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,200 @@
+package lexer;
+
+import java.util.Arrays;
+
+/**
+ * File: Tokens.java
+ *
+ * A growable run of integer token codes. A code of zero or more is the id
+ * of an interned symbol; the negative codes are the parentheses and the
+ * dot. Checking a token is therefore a single integer comparison.
+ *
+ * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+ * @since 2026-10-18
+ * @version 2026-10-18
+ *
+ * @see Symbols
+ */
+
+public class Tokens{
+
+	private int[] codes;
+	private int size = 0;
+
+	/**
+	 * Function: Tokens
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 */
+
+	public Tokens(){
+		codes = new int[8];
+	}
+
+	/**
+	 * Function: Tokens
+	 *
+	 * Constructor(Tokens t, int from, int to)
+	 *
+	 * Copies a range of another run of tokens
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param t The tokens to copy from
+	 * @param from The first index to copy, inclusive
+	 * @param to The last index to copy, exclusive
+	 */
+
+	public Tokens(Tokens t, int from, int to){
+		size = to - from;
+		codes = Arrays.copyOfRange(t.codes, from, Math.max(to, from + 1));
+	}
+
+	/**
+	 * Function: add
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param code A token code to append
+	 */
+
+	public void add(int code){
+		if ( size == codes.length ){
+			codes = Arrays.copyOf(codes, size * 2);
+		}
+		codes[size++] = code;
+	}
+
+	/**
+	 * Function: addAll
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param t Tokens to append
+	 */
+
+	public void addAll(Tokens t){
+		addAll(t, 0, t.size);
+	}
+
+	/**
+	 * Function: addAll
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param t Tokens to append a range of
+	 * @param from The first index to append, inclusive
+	 * @param to The last index to append, exclusive
+	 */
+
+	public void addAll(Tokens t, int from, int to){
+		int n = to - from;
+		if ( size + n > codes.length ){
+			codes = Arrays.copyOf(codes, Math.max(codes.length * 2, size + n));
+		}
+		System.arraycopy(t.codes, from, codes, size, n);
+		size += n;
+	}
+
+	/**
+	 * Function: get
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param i An index
+	 *
+	 * @return The token code at that index
+	 *
+	 * @throws ArrayIndexOutOfBoundsException If there is no such token
+	 */
+
+	public int get(int i){
+		if ( i >= size ){
+			throw new ArrayIndexOutOfBoundsException(i);
+		}
+		return codes[i];
+	}
+
+	/**
+	 * Function: size
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @return The number of tokens
+	 */
+
+	public int size(){
+		return size;
+	}
+
+	/**
+	 * Function: indexOf
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param code The token code to look for
+	 * @param from The index to start looking from
+	 *
+	 * @return The index of the first such token, or -1 if there is none
+	 */
+
+	public int indexOf(int code, int from){
+		for ( int i = from; i < size; i++ ){
+			if ( codes[i] == code ){
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Function: toArray
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @return A copy of the token codes
+	 */
+
+	public int[] toArray(){
+		return Arrays.copyOf(codes, size);
+	}
+
+	/**
+	 * Function: toString
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @return The tokens spelled out, for error messages
+	 */
+
+	public String toString(){
+		StringBuilder b = new StringBuilder("[");
+		for ( int i = 0; i < size; i++ ){
+			if ( i > 0 ){
+				b.append(", ");
+			}
+			b.append(codes[i] >= 0 ? Symbols.name(codes[i]) : Lexer.symbolText(codes[i]));
+		}
+		return b.append("]").toString();
+	}
+}
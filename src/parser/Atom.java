@@ -1,8 +1,8 @@
 package parser;
 
 import java.lang.*;
-import java.util.Vector;
-import java.util.Hashtable;
+import java.math.BigInteger;
+import lexer.Symbols;
 
 /**
  * File: Atom.java
@@ -10,181 +10,390 @@ import java.util.Hashtable;
  * This file is the Atom class.
  * 
  * The atom class is used for elements of a Lisp program which are alphanumeric literals
- * (appropriately formed with only leading alphabeticals) or strictly numerics.  The 
- * constructor uses the Patterns class to access the common regular expressions
- * to identify legal atoms.
+ * (appropriately formed with only leading alphabeticals) or strictly numerics.
+ * 
+ * There are three kinds of atom, told apart by a field rather than by
+ * looking at the text: symbols, which carry the id of their interned
+ * name, fixnums, which carry their value as a long, and bignums, which
+ * carry a BigInteger for the integers too large for a long. A number is
+ * always kept as a fixnum when it fits, so arithmetic only leaves the
+ * fast path when it overflows. Atoms are never built directly. Every
+ * symbol has one canonical Atom (so T and NIL are singletons), small
+ * integers come from a preallocated cache, and the Atom for each literal
+ * token of the program is worked out once and then reused.
  * 
  * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
  * @since 2012-11-01
- * @version 2012-11-01
+ * @version 2026-10-18
  */	
 
-class Atom extends TreeNode {
-	private String literalString;
+public class Atom extends TreeNode {
+	private static final int SYMBOL = 0;
+	private static final int FIXNUM = 1;
+	private static final int BIGNUM = 2;
+
+	private static final BigInteger LONG_MIN = BigInteger.valueOf(Long.MIN_VALUE);
+	private static final BigInteger LONG_MAX = BigInteger.valueOf(Long.MAX_VALUE);
+
+	private static final int CACHE_LOW = -128;
+	private static final int CACHE_HIGH = 1024;
+	private static final Atom[] fixnums = new Atom[CACHE_HIGH - CACHE_LOW];
+
+	private static volatile Atom[] literals = new Atom[1024];
+
+	public static final Atom NIL = new Atom(SYMBOL, Symbols.NIL, 0, null);
+	public static final Atom T = new Atom(SYMBOL, Symbols.T, 0, null);
+
+	static {
+		for ( int i = 0; i < fixnums.length; i++ ){
+			fixnums[i] = new Atom(FIXNUM, -1, i + CACHE_LOW, null);
+		}
+		literals[Symbols.NIL] = NIL;
+		literals[Symbols.T] = T;
+	}
+
+	private final int kind;
+	private final int symbol;
+	private final long value;
+	private final BigInteger big;
 	
 	protected boolean isList(){ return false; }
 	
 	/**
 	 * Function: Atom
 	 * 
-	 * Constructor(String s)
-	 * 
-	 * This forms an atom (if it of valid form) from a string as a literal
+	 * Constructor(int k, int s, long v, BigInteger b)
 	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
 	 * @since 2012-11-01
-	 * @version 2012-11-01
+	 * @version 2026-10-18
 	 * 
-	 * @param s A literal string to be used for the atom
+	 * @param k The kind of atom
+	 * @param s The symbol id of a symbol
+	 * @param v The value of a fixnum
+	 * @param b The value of a bignum
+	 */
+
+	private Atom(int k, int s, long v, BigInteger b){
+		kind = k;
+		symbol = s;
+		value = v;
+		big = b;
+	}
+	
+	/**
+	 * Function: fromToken
 	 * 
-	 * @throws Exception If the string is not that of an acceptable atom
+	 * Gives the atom for the code of a literal token. The text of the
+	 * literal is only classified the first time its code is seen; after
+	 * that the same Atom is handed back.
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 * 
+	 * @param code The symbol id of the literal
+	 * 
+	 * @return The Atom for the literal
+	 * 
+	 * @throws Exception If the token is not that of an acceptable atom
 	 */
 
-	public Atom(String s) throws Exception{
-		if ( ! s.matches(Patterns.LITERAL) && ! s.matches(Patterns.NUMERIC_ATOM) ){
-			throw new Exception("Error!");
+	static Atom fromToken(int code) throws Exception{
+		Atom[] cache = literals;
+		if ( code >= 0 && code < cache.length && cache[code] != null ){
+			return cache[code];
 		}
-		literalString = s;
-		tokens = new Vector <String> ();
-		tokens.add(literalString);
+		return classify(code);
 	}
 	
 	/**
-	 * Function: Atom
+	 * Function: symbol
 	 * 
-	 * Constructor(boolean b)
-	 * 
-	 * This constructs an atom to be T or NIL from a boolean argument.  If true is
-	 * given, then the atom will be T and NIL for false.
+	 * Gives the canonical symbol atom for a name
 	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
-	 * @since 2012-11-01
-	 * @version 2012-11-01
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 * 
+	 * @param name The name of the symbol
+	 * 
+	 * @return The Atom for the symbol
 	 * 
-	 * @param b A boolean representing T or NIL
+	 * @throws Exception If the name is not that of an acceptable atom
 	 */
 
-	public Atom(boolean b){
-		literalString = b ? "T" : "NIL";
-		tokens = new Vector <String> ();
-		tokens.add(literalString);
+	static Atom symbol(String name) throws Exception{
+		return fromToken(Symbols.intern(name));
 	}
 	
 	/**
-	 * Function Atom
+	 * Function: fixnum
 	 * 
-	 * Constructor(int i)
-	 * 
-	 * This constructs an Atom from the Integer primitive. Simply converts
-	 * the integer to a string to be used for the literal representation.
+	 * Gives the atom for an integer, out of the small-integer cache if
+	 * it falls in range
 	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
-	 * @since 2012-11-01
-	 * @version 2012-11-01
+	 * @since 2026-10-18
+	 * @version 2026-10-18
 	 * 
 	 * @param i An integer
+	 * 
+	 * @return The Atom for the integer
 	 */
 
-	public Atom(int i){
-		literalString = Integer.toString(i);
-		tokens = new Vector <String> ();
-		tokens.add(literalString);
+	static Atom fixnum(long i){
+		if ( i >= CACHE_LOW && i < CACHE_HIGH ){
+			return fixnums[(int) i - CACHE_LOW];
+		}
+		return new Atom(FIXNUM, -1, i, null);
 	}
 	
 	/**
-	 * Function toString
+	 * Function: number
 	 * 
-	 * This simply returns the atom literal. It accounts for redundantly positive
-	 * numbers - that is - numbers which are preceded by '+' and can simply be
-	 * expressed without it. That prevents Integer.parseInt() from throwing format
-	 * errors.
+	 * Gives the atom for an integer of any size. It is a fixnum whenever
+	 * the value fits in a long, and only otherwise a bignum.
 	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
-	 * @since 2012-11-01
-	 * @version 2012-11-01
+	 * @since 2026-10-18
+	 * @version 2026-10-18
 	 * 
-	 * @return The string version of the literal atom
+	 * @param b An integer
+	 * 
+	 * @return The Atom for the integer
 	 */
 
-	public String toString(){
-		if ( literalString.matches(Patterns.NUMERIC_ATOM) ){
-			return literalString.replaceAll("\\A\\+", "");
-		} else {
-			return literalString;
+	static Atom number(BigInteger b){
+		if ( b.compareTo(LONG_MIN) >= 0 && b.compareTo(LONG_MAX) <= 0 ){
+			return fixnum(b.longValue());
 		}
+		return new Atom(BIGNUM, -1, 0, b);
 	}
 	
 	/**
-	 * Function evaluate
+	 * Function: classify
 	 * 
-	 * Returns the atom itself, and if it is representing a variable,
-	 * then return the value of that variable.
+	 * Works out what kind of atom a literal is, in one pass over its
+	 * characters, and records the answer against its code. A literal
+	 * made only of digits (with an optional sign) is a number; any other
+	 * literal which starts with a letter or digit is a symbol.
 	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
-	 * @since 2012-11-01
-	 * @version 2012-11-01
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 * 
+	 * @param code The symbol id of the literal
 	 * 
-	 * @return The atom or the variable value of it if applicable
+	 * @return The Atom for the literal
 	 * 
-	 * @throws Exception Require by parent class
+	 * @throws Exception If the literal is not an acceptable atom
 	 */
 
-	protected TreeNode evaluate() throws Exception{
-		if ( Environment.varIsDefined(literalString) ){
-			return Environment.getVarValue(literalString);
+	private static synchronized Atom classify(int code) throws Exception{
+		if ( code < 0 ){
+			throw new Exception("Error!");
+		}
+		if ( code < literals.length && literals[code] != null ){
+			return literals[code];
+		}
+
+		String s = Symbols.name(code);
+		boolean signed = s.charAt(0) == '+' || s.charAt(0) == '-';
+		boolean digits = true;
+		for ( int i = signed ? 1 : 0; i < s.length(); i++ ){
+			char c = s.charAt(i);
+			if ( c < '0' || c > '9' ){
+				digits = false;
+				if ( !Character.isLetter(c) ){
+					throw new Exception("Error! Invalid atom: " + s);
+				}
+			}
+		}
+
+		Atom a;
+		if ( signed && s.length() > 1 && !digits ){
+			throw new Exception("Error! Invalid atom: " + s);
+		} else if ( digits && s.length() > (signed ? 1 : 0) ){
+			try {
+				a = fixnum(Long.parseLong(s));
+			} catch (NumberFormatException e){
+				a = number(new BigInteger(s));
+			}
 		} else {
-			return this;
+			a = new Atom(SYMBOL, code, 0, null);
+		}
+
+		Atom[] cache = literals;
+		if ( code >= cache.length ){
+			Atom[] grown = new Atom[Math.max(cache.length * 2, code + 1)];
+			System.arraycopy(cache, 0, grown, 0, cache.length);
+			cache = grown;
 		}
+		cache[code] = a;
+		literals = cache;
+		return a;
 	}
 	
 	/**
-	 * Function: evaluate
+	 * Function: isNumber
 	 * 
-	 * This calls the base evaluate function but supports calls that come with extra parameters.
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 * 
+	 * @return True if the atom is a fixnum or a bignum
+	 */
+
+	public boolean isNumber(){
+		return kind != SYMBOL;
+	}
+	
+	/**
+	 * Function: isFixnum
 	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
-	 * @since 2012-11-01
-	 * @version 2012-11-01
-	 *
-	 * @param env A Hashtable of bound variables. Not used.
-	 *
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 * 
+	 * @return True if the atom is a number which fits in a long
 	 */
 
-	protected TreeNode evaluate(Hashtable <String, TreeNode> env) throws Exception{
-		return evaluate();
+	protected boolean isFixnum(){
+		return kind == FIXNUM;
 	}
 	
 	/**
-	 * Function: evaluate
+	 * Function: longValue
 	 * 
-	 * This calls the base evaluate function but supports calls that come with extra parameters.
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 * 
+	 * @return The value of a fixnum
+	 * 
+	 * @throws Exception If the atom is not a fixnum
+	 */
+
+	protected long longValue() throws Exception{
+		if ( kind != FIXNUM ){
+			throw new Exception("Error! Not a number: " + toString());
+		}
+		return value;
+	}
+	
+	/**
+	 * Function: bigValue
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 * 
+	 * @return The value of a fixnum or bignum as a BigInteger
+	 * 
+	 * @throws Exception If the atom is not a number
+	 */
+
+	protected BigInteger bigValue() throws Exception{
+		if ( kind == BIGNUM ){
+			return big;
+		}
+		return BigInteger.valueOf(longValue());
+	}
+
+	/**
+	 * Function symbol
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 * 
+	 * @return The symbol id of the literal, or -1 for a number
+	 */
+
+	public int symbol(){
+		return symbol;
+	}
+
+	/**
+	 * Function: sameValue
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 * 
+	 * @param a Another atom
+	 * 
+	 * @return True if both are the same symbol or the same number
+	 */
+
+	boolean sameValue(Atom a){
+		if ( kind != a.kind ){
+			return false;
+		} else if ( kind == BIGNUM ){
+			return big.equals(a.big);
+		}
+		return kind == FIXNUM ? value == a.value : symbol == a.symbol;
+	}
+
+	/**
+	 * Function: valueHash
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 * 
+	 * @return A hash consistent with sameValue
+	 */
+
+	int valueHash(){
+		if ( kind == BIGNUM ){
+			return big.hashCode();
+		}
+		return kind == FIXNUM ? Long.hashCode(value) : symbol;
+	}
+	
+	/**
+	 * Function toString
+	 * 
+	 * This simply returns the atom literal. Numbers are printed from
+	 * their value, so a redundant leading '+' in the source is dropped.
 	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
 	 * @since 2012-11-01
-	 * @version 2012-11-01
-	 *
-	 * @param env A Hashtable of bound variables. Not used.
-	 *
+	 * @version 2026-10-18
+	 * 
+	 * @return The string version of the literal atom
 	 */
 
-	protected TreeNode evaluate(boolean flag, Hashtable <String, TreeNode> env) throws Exception{
-		return evaluate();
+	public String toString(){
+		switch ( kind ){
+			case FIXNUM: return Long.toString(value);
+			case BIGNUM: return big.toString();
+			default: return Symbols.name(symbol);
+		}
 	}
 	
 	/**
-	 * Function: evaluate
+	 * Function evaluate
 	 * 
-	 * This calls the base evaluate function but supports calls that come with extra parameters.
+	 * Returns the atom itself. Variables inside a function body were
+	 * already swapped out for references to their frame slots when the
+	 * function was defined, so an atom which is still here is a constant.
 	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
 	 * @since 2012-11-01
-	 * @version 2012-11-01
-	 *
-	 * @param env A Hashtable of bound variables. Not used.
+	 * @version 2026-10-18
 	 *
+	 * @param flag Whether or not to take numericals literally. Not used.
+	 * @param env The current frame. Not used.
+	 * 
+	 * @return The atom
+	 * 
+	 * @see Variable
 	 */
 
-	protected TreeNode evaluate(boolean flag) throws Exception{
-		return evaluate();
+	public TreeNode evaluate(boolean flag, Frame env) throws Exception{
+		return this;
 	}
 }
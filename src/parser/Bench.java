@@ -0,0 +1,75 @@
+package parser;
+
+import java.util.Arrays;
+import lexer.Lexer;
+
+/**
+ * File: Bench.java
+ *
+ * The benchmark behind the single-pass reader, so that its numbers can
+ * be measured again on any machine:
+ *
+ *	java -cp ./bin parser.Bench [ELEMENTS [DEPTH]]
+ *
+ * It reads a flat list of ELEMENTS symbols (1000000 unless given) and a
+ * list nested DEPTH deep (100000 unless given), three times each, and
+ * reports how long each read took and how much memory the flat list
+ * retains once read.
+ *
+ * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+ * @since 2026-10-18
+ * @version 2026-10-18
+ *
+ * @see Parser
+ */
+
+public class Bench{
+
+	/**
+	 * Function: main
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param args The length of the flat list, then the depth of the nested one
+	 */
+	public static void main(String[] args) throws Exception{
+		int elements = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		int depth = args.length > 1 ? Integer.parseInt(args[1]) : 100000;
+
+		StringBuilder flat = new StringBuilder("(");
+		for ( int i = 0; i < elements; i++ ){
+			flat.append('A').append(i % 100).append(' ');
+		}
+		String list = flat.append(')').toString();
+		char[] nested = new char[2 * depth + 1];
+		Arrays.fill(nested, 0, depth, '(');
+		nested[depth] = 'X';
+		Arrays.fill(nested, depth + 1, nested.length, ')');
+		String deep = new String(nested);
+
+		for ( int r = 0; r < 3; r++ ){
+			long start = System.nanoTime();
+			new Parser(new Lexer(list)).read();
+			System.out.printf("read flat %d: %.1f ms%n", elements, ( System.nanoTime() - start ) / 1e6);
+		}
+		for ( int r = 0; r < 3; r++ ){
+			long start = System.nanoTime();
+			new Parser(new Lexer(deep)).read();
+			System.out.printf("read deep %d: %.1f ms%n", depth, ( System.nanoTime() - start ) / 1e6);
+		}
+
+		Runtime rt = Runtime.getRuntime();
+		System.gc();
+		long before = rt.totalMemory() - rt.freeMemory();
+		TreeNode held = new Parser(new Lexer(list)).read();
+		System.gc();
+		long after = rt.totalMemory() - rt.freeMemory();
+		System.out.printf("flat %d retains about %.1f MB%n", elements, ( after - before ) / 1e6);
+		// Keeps the list reachable until it has been measured
+		if ( held == null ){
+			System.out.println();
+		}
+	}
+}
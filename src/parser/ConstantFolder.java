@@ -0,0 +1,326 @@
+package parser;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Vector;
+import lexer.Symbols;
+
+/**
+ * File: ConstantFolder.java
+ *
+ * A pass run once over the body of each user-defined function, when it
+ * is defined, and over each top-level statement before it is run. It
+ * works out ahead of time every call of a primitive whose arguments are
+ * all constants (atoms and quoted data), so that (PLUS 2 3) becomes 5
+ * and (CDR (QUOTE (A B))) becomes (QUOTE (B)), and it drops the clauses
+ * of a COND whose test is a constant other than T, along with every
+ * clause after one whose test is T. A COND left with only a clause
+ * whose test is T is replaced by the result of that clause.
+ *
+ * Only primitives whose value depends on nothing but their arguments
+ * are worked out, and CONS is not among them: it makes a new pair on
+ * every call, which EQ can tell apart from any other. A call which
+ * fails is left as it was, so that the error still happens when (and
+ * only if) the call is made.
+ *
+ * How many nodes (atoms and S-Expressions) the pass has taken out is
+ * counted, for each function and in total for each Environment, and
+ * can be read with FOLDSTATS.
+ *
+ * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+ * @since 2026-10-18
+ * @version 2026-10-18
+ *
+ * @see UserFunction
+ */
+
+final class ConstantFolder{
+
+	private static final int QUOTE = Symbols.intern("QUOTE");
+	private static final int COND = Symbols.intern("COND");
+	private static final int DEFUN = Symbols.intern("DEFUN");
+	private static final int DEFMEMO = Symbols.intern("DEFMEMO");
+
+	private static final String[] PURE = { "CAR", "CDR", "ATOM", "EQ", "NULL", "INT",
+		"PLUS", "MINUS", "TIMES", "QUOTIENT", "REMAINDER", "LESS", "GREATER" };
+	private static final boolean[] pure;
+
+	static {
+		boolean[] p = new boolean[0];
+		for ( String name : PURE ){
+			int id = Symbols.intern(name);
+			if ( id >= p.length ){
+				p = Arrays.copyOf(p, id + 1);
+			}
+			p[id] = true;
+		}
+		pure = p;
+	}
+
+	private ConstantFolder(){}
+
+	/**
+	 * Function: statement
+	 *
+	 * Folds a top-level statement and counts what was taken out of it
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param env The environment of the session running the statement
+	 * @param e The statement as it was read
+	 *
+	 * @return The statement to run in its place
+	 */
+	static TreeNode statement(Environment env, TreeNode e){
+		TreeNode folded;
+		try{
+			folded = fold(e);
+		} catch (StackOverflowError x){
+			// Too deeply nested to fold; evaluating it will report the same
+			return e;
+		}
+		if ( folded != e ){
+			int before = size(e);
+			env.record(before, before - size(folded));
+		} else {
+			env.record(size(e), 0);
+		}
+		return folded;
+	}
+
+	/**
+	 * Function: fold
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param e A form, whose variables may have been resolved
+	 *
+	 * @return The form with its constant parts worked out, or e itself if
+	 *         nothing could be
+	 */
+	static TreeNode fold(TreeNode e){
+		if ( !(e instanceof SExpression) || !(((SExpression) e).address instanceof Atom) ){
+			return e;
+		}
+
+		SExpression s = (SExpression) e;
+		Atom head = (Atom) s.address;
+		Vector <TreeNode> args = arguments(s);
+		if ( args == null || head.isNumber() || head == Atom.NIL || head == Atom.T ){
+			return e;
+		}
+
+		int symbol = head.symbol();
+		if ( symbol == QUOTE || symbol == DEFUN || symbol == DEFMEMO ){
+			return e;
+		} else if ( symbol == COND ){
+			return foldCond(s, args);
+		}
+
+		boolean changed = false;
+		boolean constant = true;
+		for ( int i = 0; i < args.size(); i++ ){
+			TreeNode a = fold(args.get(i));
+			if ( a != args.get(i) ){
+				args.set(i, a);
+				changed = true;
+			}
+			constant = constant && isConstant(a);
+		}
+		TreeNode form = changed ? new SExpression(head, list(args)) : e;
+
+		if ( constant && symbol >= 0 && symbol < pure.length && pure[symbol] ){
+			try{
+				TreeNode v = form.evaluate(true, null);
+				return v instanceof SExpression ? quote(v) : v;
+			} catch (Exception x){
+				// Left for the call to report when it is made
+			}
+		}
+		return form;
+	}
+
+	/**
+	 * Function: foldCond
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param s The whole COND form
+	 * @param clauses The clauses of the COND
+	 *
+	 * @return The COND with the clauses which cannot be taken left out, or
+	 *         the result of its only clause if that one is always taken
+	 */
+	private static TreeNode foldCond(SExpression s, Vector <TreeNode> clauses){
+		for ( TreeNode c : clauses ){
+			if ( !(c instanceof SExpression) || !(((SExpression) c).data instanceof SExpression) ){
+				return s;
+			}
+		}
+
+		boolean changed = false;
+		Vector <TreeNode> all = new Vector <TreeNode> ();
+		Vector <TreeNode> kept = new Vector <TreeNode> ();
+		boolean taken = false;
+		for ( TreeNode c : clauses ){
+			SExpression clause = (SExpression) c;
+			SExpression rest = (SExpression) clause.data;
+			TreeNode test = fold(clause.address);
+			TreeNode result = fold(rest.address);
+			if ( test != clause.address || result != rest.address ){
+				clause = new SExpression(test, new SExpression(result, rest.data));
+				changed = true;
+			}
+			all.add(clause);
+			if ( taken ){
+				continue;
+			} else if ( !isConstant(test) ){
+				kept.add(clause);
+			} else if ( valueOf(test) == Atom.T ){
+				kept.add(clause);
+				taken = true;
+			}
+		}
+
+		if ( kept.isEmpty() ){
+			// No clause can be taken: leave the error for the COND to report
+			return changed ? new SExpression(s.address, list(all)) : s;
+		}
+
+		SExpression first = (SExpression) kept.get(0);
+		TreeNode result = ((SExpression) first.data).address;
+		if ( isConstant(first.address) && valueOf(first.address) == Atom.T
+				&& !( result instanceof SExpression && ((SExpression) result).address instanceof Atom && ((Atom) ((SExpression) result).address).isNumber() ) ){
+			// Unless it is headed by a numeral, the result means the same outside the COND
+			return result;
+		} else if ( kept.size() == all.size() && !changed ){
+			return s;
+		}
+		return new SExpression(s.address, list(kept));
+	}
+
+	/**
+	 * Function: size
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param root A form
+	 *
+	 * @return The number of atoms and S-Expressions in it
+	 */
+	static int size(TreeNode root){
+		int n = 0;
+		ArrayDeque <TreeNode> work = new ArrayDeque <TreeNode> ();
+		work.push(root);
+		while ( !work.isEmpty() ){
+			TreeNode t = work.pop();
+			n++;
+			if ( t instanceof SExpression ){
+				work.push(((SExpression) t).data);
+				work.push(((SExpression) t).address);
+			}
+		}
+		return n;
+	}
+
+	/**
+	 * Function: isConstant
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param e A form
+	 *
+	 * @return True if the form is an atom or a quotation
+	 */
+	private static boolean isConstant(TreeNode e){
+		if ( e instanceof Atom ){
+			return true;
+		}
+		return e instanceof SExpression && ((SExpression) e).address instanceof Atom
+			&& ((Atom) ((SExpression) e).address).symbol() == QUOTE
+			&& ((SExpression) e).data instanceof SExpression
+			&& ((SExpression) ((SExpression) e).data).data == Atom.NIL;
+	}
+
+	/**
+	 * Function: valueOf
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param e A constant form
+	 *
+	 * @return Its value
+	 */
+	private static TreeNode valueOf(TreeNode e){
+		return e instanceof Atom ? e : ((SExpression) ((SExpression) e).data).address;
+	}
+
+	/**
+	 * Function: quote
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param v A value
+	 *
+	 * @return The form (QUOTE v)
+	 *
+	 * @throws Exception If QUOTE cannot be made a symbol
+	 */
+	private static TreeNode quote(TreeNode v) throws Exception{
+		return new SExpression(Atom.symbol("QUOTE"), new SExpression(v, Atom.NIL));
+	}
+
+	/**
+	 * Function: list
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param elements The elements of a list
+	 *
+	 * @return The list
+	 */
+	private static TreeNode list(Vector <TreeNode> elements){
+		TreeNode l = Atom.NIL;
+		for ( int i = elements.size() - 1; i >= 0; i-- ){
+			l = new SExpression(elements.get(i), l);
+		}
+		return l;
+	}
+
+	/**
+	 * Function: arguments
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param s A form
+	 *
+	 * @return The arguments of the form, or null if they are not a proper list
+	 */
+	private static Vector <TreeNode> arguments(SExpression s){
+		Vector <TreeNode> args = new Vector <TreeNode> ();
+		TreeNode t = s.data;
+		while ( t instanceof SExpression ){
+			args.add(((SExpression) t).address);
+			t = ((SExpression) t).data;
+		}
+		return t == Atom.NIL ? args : null;
+	}
+}
@@ -1,5 +1,6 @@
 package parser;
 import java.util.*;
+import vm.Jit;
 
 /**
  * File: Environment.java
@@ -8,14 +9,82 @@ import java.util.*;
  * the binding of functions and variables within the context of the
  * running Lisp program.
  * 
+ * Variables are no longer kept here: each call of a user-defined
+ * function binds its parameters in a Frame of its own.
+ * 
+ * Every definition moves the definition epoch on, which is what lets
+ * call sites cache the functions they call (see InlineCache).
+ * 
+ * Each Interpreter session has an environment of its own, so programs
+ * run side by side in one JVM never see each other's definitions. The
+ * JIT's call sites for the functions defined here, the evaluator's
+ * inline caches for calls made by name from its statements, and the
+ * counts of what constant folding has taken out, are kept with it too.
+ * So sessions calling the same names never take turns at one cache.
+ * 
+ * An environment may also be given a library: another environment,
+ * sealed once its functions have been defined, whose functions are
+ * found when no function of that name is defined here. Any number of
+ * sessions can share one library, and so share the work of defining
+ * and compiling its functions; a library function calls the functions
+ * of its library, whatever a session defines.
+ * 
  * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
  * @since 2012-11-01
- * @version 2012-11-01
+ * @version 2026-10-18
  *
+ * @see Interpreter
  */
-class Environment{
-	public static java.util.Hashtable <String, UserFunction> funcs = new Hashtable <String, UserFunction>();
-	public static java.util.Hashtable <String, TreeNode> vars = new Hashtable <String, TreeNode>();
+public class Environment{
+	final Hashtable <String, UserFunction> funcs = new Hashtable <String, UserFunction>();
+	private final Environment library;
+	private volatile boolean sealed = false;
+	private volatile int epoch = 0;
+	private final Jit.Sites sites = new Jit.Sites();
+	private volatile InlineCache[] calls = new InlineCache[64];
+	private long nodes = 0;
+	private long eliminated = 0;
+
+	/**
+	 * Function: Environment
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 */
+	public Environment(){
+		this(null);
+	}
+
+	/**
+	 * Function: Environment
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param l The library of functions found when none is defined here, or null
+	 *
+	 */
+	public Environment(Environment l){
+		library = l;
+	}
+
+	/**
+	 * Function: seal
+	 * 
+	 * Makes the environment fit to be a library, by refusing any further
+	 * definitions
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 */
+	public void seal(){
+		sealed = true;
+	}
 
 	/**
 	 * Function: executeFunction
@@ -24,33 +93,34 @@ class Environment{
 	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
 	 * @since 2012-11-01
-	 * @version 2012-11-01
+	 * @version 2026-10-18
 	 *
 	 * @param name The name of the function
 	 * @param params An SExpression or Atom to be used as actual parameter
+	 * @param env The frame of the caller
 	 * 
 	 * @return The TreeNode (S-Expression or Atom) which is the result of evaluation
 	 * 
 	 * @throws Exception If the requested function is undefined
 	 *
 	 */
-	public static TreeNode executeFunction(String name, TreeNode params) throws Exception{
-		if ( !funcs.containsKey(name) ){
+	public TreeNode executeFunction(String name, TreeNode params, Frame env) throws Exception{
+		UserFunction f = getFunction(name);
+		if ( f == null ){
 			throw new Exception("Error! Undefined function: " + name);
 		}
-
-		UserFunction f = funcs.get(name);
-		return f.evaluate(params);
+		return f.evaluate(params, env);
 	}
 
 	/**
 	 * Function: registerFunction
 	 * 
-	 * This defines a function in the "d-list"
+	 * This defines a function in the "d-list". Compiled code which
+	 * calls an earlier definition by that name is told to let go of it.
 	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
 	 * @since 2012-11-01
-	 * @version 2012-11-01
+	 * @version 2026-10-18
 	 *
 	 * @param name The string name of the function
 	 * @param params The formal parameter list of the function
@@ -59,197 +129,223 @@ class Environment{
 	 * @throws Exception If the function definition is illegal
 	 *
 	 */
-	public static void registerFunction(String name, TreeNode params, TreeNode body) throws Exception{
-		UserFunction f = new UserFunction(name, params, body);
-		funcs.put(name, f);
+	public void registerFunction(String name, TreeNode params, TreeNode body) throws Exception{
+		registerFunction(name, params, body, false);
 	}
 
 	/**
-	 * Function: functionIsDefined
+	 * Function: registerFunction
 	 * 
-	 * Detects if a function is in the current scope
+	 * Defines a function, which may be memoized
 	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
-	 * @since 2012-11-01
-	 * @version 2012-11-01
+	 * @since 2026-10-18
+	 * @version 2026-10-18
 	 *
 	 * @param name The string name of the function
+	 * @param params The formal parameter list of the function
+	 * @param body The literal or SExpression representing the body of the function
+	 * @param memoized Whether the function remembers its results
 	 * 
-	 * @return True if the function is defined. False if not.
+	 * @throws Exception If the function definition is illegal, or the
+	 *                   environment is sealed
 	 *
 	 */
-	public static boolean functionIsDefined(String name){
-		return funcs.containsKey(name);
+	public synchronized void registerFunction(String name, TreeNode params, TreeNode body, boolean memoized) throws Exception{
+		if ( sealed ){
+			throw new Exception("Error! Cannot define functions in a library: " + name);
+		}
+		define(new UserFunction(this, name, params, body, memoized));
 	}
 
 	/**
-	 * Function: print
+	 * Function: define
 	 * 
-	 * Sends the variable hashtable stringified to stdout
+	 * Binds a function to its name. Whatever depended on the function
+	 * the name was bound to before is brought up to date: compiled code
+	 * calling it is unlinked, memoized functions which may call it are
+	 * emptied and functions it was inlined into are defined again, so
+	 * that they inline the new definition.
 	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
-	 * @since 2012-11-01
-	 * @version 2012-11-01
-	 *
+	 * @since 2026-10-18
+	 * @version 2026-10-18
 	 *
+	 * @param f The function
+	 * 
+	 * @throws Exception If a function to be defined again no longer can be
 	 */
-	public static void print(){
-		System.out.println(vars.toString());
+	private void define(UserFunction f) throws Exception{
+		String name = f.name;
+		UserFunction old = funcs.put(name, f);
+		epoch++;
+		if ( old != null ){
+			old.current = false;
+		}
+		Jit.invalidate(this, name);
+		Vector <UserFunction> stale = new Vector <UserFunction> ();
+		for ( UserFunction g : funcs.values() ){
+			if ( g.memo != null && g != f && g.mayCall(name) ){
+				g.memo.clear();
+			}
+			if ( g != f && g.inlined.contains(name) ){
+				stale.add(g);
+			}
+		}
+		for ( UserFunction g : stale ){
+			if ( funcs.get(g.name) == g ){
+				UserFunction h = new UserFunction(this, g.name, g.parameters, g.definition, false);
+				// The cache, already emptied, carries over along with its counts
+				h.memo = g.memo;
+				define(h);
+			}
+		}
 	}
 
+
 	/**
-	 * Function: stringify
-	 * 
-	 * Returns the string version of the variable hashtable.
+	 * Function: epoch
 	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
-	 * @since 2012-11-01
-	 * @version 2012-11-01
-	 * 
-	 * @return The stringified hashtable of bound variables
+	 * @since 2026-10-18
+	 * @version 2026-10-18
 	 *
-	 * @deprecated Only for early debugging
+	 * @return The number of definitions made so far
 	 *
 	 */
-	public static String stringify(){
-		return vars.toString();
+	public int epoch(){
+		return epoch;
 	}
 
 	/**
-	 * Function: varIsDefined
-	 * 
-	 * Detects if a variable is defined in the current scope
+	 * Function: getFunction
 	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
-	 * @since 2012-11-01
-	 * @version 2012-11-01
-	 * 
-	 * @param name The string name of the requested variable
+	 * @since 2026-10-18
+	 * @version 2026-10-18
 	 *
-	 * @return True if the variable is bound. False if not.
+	 * @param name The atom naming the function
+	 * 
+	 * @return The function, or null if none is defined by that name
 	 *
 	 */
-	public static boolean varIsDefined(String name){
-		return vars.containsKey(name);
+	public UserFunction getFunction(Atom name){
+		int id = name.symbol();
+		if ( id < 0 ){
+			return getFunction(name.toString());
+		}
+		InlineCache[] c = calls;
+		InlineCache site = id < c.length ? c[id] : null;
+		if ( site == null ){
+			site = site(id, name);
+		}
+		return site.lookup(this);
 	}
 
 	/**
-	 * Function: unbindAll
-	 * 
-	 * Used to remove variables from the environment
+	 * Function: site
 	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
-	 * @since 2012-11-01
-	 * @version 2012-11-01
+	 * @since 2026-10-18
+	 * @version 2026-10-18
 	 *
-	 * details
+	 * @param id The symbol id of a name
+	 * @param name The atom of that name
+	 * 
+	 * @return The inline cache for calls of that name, made if need be
 	 *
 	 */
-	public static void unbindAll(Hashtable <String, TreeNode> tbl){
-		Iterator it = tbl.entrySet().iterator();
-	    while (it.hasNext()) {
-	        Map.Entry pairs = (Map.Entry)it.next();
-	        if ( vars.get(pairs.getKey()) == pairs.getValue() ){
-	        	vars.remove(pairs.getKey());
-	        }
-	        it.remove(); // avoids a ConcurrentModificationException
-	    }
+	private synchronized InlineCache site(int id, Atom name){
+		InlineCache[] c = calls;
+		if ( id >= c.length ){
+			c = Arrays.copyOf(c, Math.max(c.length * 2, id + 1));
+		}
+		if ( c[id] == null ){
+			c[id] = new InlineCache(name.toString());
+		}
+		// Written again whether or not it grew, to publish the new cache
+		calls = c;
+		return c[id];
 	}
 
 	/**
-	 * Function: unbind
-	 * 
-	 * Unbinds a specific variable from the envrionment
+	 * Function: getFunction
 	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
-	 * @since 2012-11-01
-	 * @version 2012-11-01
+	 * @since 2026-10-18
+	 * @version 2026-10-18
 	 *
-	 * @param name String name of the variable
+	 * @param name The string name of the function
+	 * 
+	 * @return The function, defined here or else in the library, or null
+	 *         if none is defined by that name
 	 *
 	 */
-	public static void unbind(String name){
-		vars.remove(name);
+	public UserFunction getFunction(String name){
+		UserFunction f = funcs.get(name);
+		return f == null && library != null ? library.getFunction(name) : f;
 	}
-	
+
 	/**
-	 * Function: getVarValue
-	 * 
-	 * Finds a variable and returns it's value if it exists
+	 * Function: sites
 	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
-	 * @since 2012-11-01
-	 * @version 2012-11-01
+	 * @since 2026-10-18
+	 * @version 2026-10-18
 	 *
-	 * @param name	The name of the variable
-	 * 
-	 * @return The TreeNode value of the variable
-	 * 
-	 * @throws Exception If the variable is not bound
+	 * @return The JIT's call sites for the functions defined here
 	 *
 	 */
-	public static TreeNode getVarValue(String name) throws Exception{
-		if ( vars.containsKey(name) ){
-			return vars.get(name);
-		} else {
-			throw new Exception("Error! No such variable.");
-		}
+	public Jit.Sites sites(){
+		return sites;
 	}
-	
+
 	/**
-	 * Function: mergeVars
-	 * 
-	 * This substitutes in new variable bindings to the current environment
+	 * Function: record
 	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
-	 * @since 2012-11-02
-	 * @version 2012-11-02
+	 * @since 2026-10-18
+	 * @version 2026-10-18
 	 *
-	 * @param newVars A Hashtable of the new variable bindings
+	 * @param before The number of nodes in a body or statement as written
+	 * @param removed The number of them constant folding took out
 	 *
 	 */
-	public static void mergeVars(Hashtable <String, TreeNode> newVars){
-		Iterator it = newVars.entrySet().iterator();
-	    while (it.hasNext()) {
-	        Map.Entry pairs = (Map.Entry)it.next();
-			if ( vars.contains(pairs.getKey()) ){ // Do not let it store multiple things in one bucket
-				vars.remove(pairs.getKey());
-			}
-			vars.put( (String) pairs.getKey(), (TreeNode) pairs.getValue() );
-	        it.remove(); // avoids a ConcurrentModificationException
-	    }
+	synchronized void record(int before, int removed){
+		nodes += before;
+		eliminated += removed;
 	}
-	
+
 	/**
-	 * Function: getVarTable
-	 * 
-	 * Returns a copy of the current environment bindings. Uses a
-	 * copy to avoid accidental corruption.
+	 * Function: foldStatistics
 	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
-	 * @since 2012-11-02
-	 * @version 2012-11-02
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @return The number of nodes in every body and statement folded so
+	 *         far, and the number of them taken out
 	 *
-	 * @return A copy of the current environment bindings
 	 */
-	public static Hashtable <String, TreeNode> getVarTable(){
-		return new Hashtable <String, TreeNode> (vars);
+	synchronized long[] foldStatistics(){
+		return new long[] { nodes, eliminated };
 	}
-	
+
 	/**
-	 * Function: setVars
+	 * Function: functionIsDefined
 	 * 
-	 * This takes a table of bindings and swaps it into the current
-	 * variable table.
+	 * Detects if a function is in the current scope
 	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
-	 * @since 2012-11-02
-	 * @version 2012-11-02
+	 * @since 2012-11-01
+	 * @version 2012-11-01
 	 *
-	 * @param v The new Hashtable of variable bindings
+	 * @param name The string name of the function
+	 * 
+	 * @return True if the function is defined. False if not.
 	 *
 	 */
-	public static void setVars(Hashtable <String, TreeNode> v){
-		vars = new Hashtable <String, TreeNode> (v);
+	public boolean functionIsDefined(String name){
+		return getFunction(name) != null;
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,93 @@
+package parser;
+
+/**
+ * File: Frame.java
+ * 
+ * A frame of variable bindings. Each call of a user-defined function
+ * gets a new frame holding the values of its actual parameters, one
+ * slot per formal parameter, linked to the frame it is lexically
+ * nested in. Because references were resolved to a (depth, slot) pair
+ * when the function was defined, looking a variable up never involves
+ * a name, and a frame is simply dropped when its call returns.
+ * 
+ * Every frame also knows the Environment of the session it belongs to,
+ * which is where the functions called while evaluating in it are
+ * looked up.
+ * 
+ * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+ * @since 2026-10-18
+ * @version 2026-10-18
+ *
+ * @see Variable
+ */
+
+public final class Frame{
+	final TreeNode[] slots;
+	final Frame parent;
+	final Environment environment;
+
+	/**
+	 * Function: Frame
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param s The values bound in this frame, by slot
+	 * @param e The environment functions are looked up in
+	 */
+	public Frame(TreeNode[] s, Environment e){
+		slots = s;
+		parent = null;
+		environment = e;
+	}
+
+	/**
+	 * Function: Frame
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param s The values bound in this frame, by slot
+	 * @param p The enclosing frame, whose environment this one shares
+	 */
+	public Frame(TreeNode[] s, Frame p){
+		slots = s;
+		parent = p;
+		environment = p.environment;
+	}
+
+	/**
+	 * Function: environment
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @return The environment functions are looked up in
+	 */
+	public Environment environment(){
+		return environment;
+	}
+
+	/**
+	 * Function: get
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param depth How many frames out from this one the binding lives
+	 * @param slot The slot of the binding in that frame
+	 * 
+	 * @return The bound value
+	 */
+	TreeNode get(int depth, int slot){
+		Frame f = this;
+		for ( int i = 0; i < depth; i++ ){
+			f = f.parent;
+		}
+		return f.slots[slot];
+	}
+}
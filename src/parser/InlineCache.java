@@ -0,0 +1,91 @@
+package parser;
+
+/**
+ * File: InlineCache.java
+ *
+ * The cached target of a call site: the user-defined function a name
+ * referred to when it was last looked up, and the definition epoch of
+ * the Environment at that time. Every DEFUN moves the epoch on, so as
+ * long as the epoch is unchanged the cached function is still the one
+ * the name refers to, and finding it again costs a comparison rather
+ * than a hash table lookup.
+ *
+ * The function and its epoch are kept together in one immutable entry,
+ * along with the environment they were found in, so a site shared
+ * between threads never pairs one with the other's partner. Each site
+ * belongs to one environment (the Environment keeps those for calls
+ * made from statements, by symbol id, and a compiled body those for the
+ * calls in it), and the environment is checked only as a safeguard.
+ *
+ * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+ * @since 2026-10-18
+ * @version 2026-10-18
+ *
+ * @see Environment
+ */
+
+public final class InlineCache{
+
+	private static final class Entry{
+		final Environment environment;
+		final UserFunction function;
+		final int epoch;
+
+		Entry(Environment v, UserFunction f, int e){
+			environment = v;
+			function = f;
+			epoch = e;
+		}
+	}
+
+	private final String name;
+	private Entry entry = null;
+
+	/**
+	 * Function: InlineCache
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param n The name called at the site
+	 */
+	public InlineCache(String n){
+		name = n;
+	}
+
+	/**
+	 * Function: lookup
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param v The environment to look the name up in
+	 *
+	 * @return The function the name refers to now, or null if there is none
+	 */
+	public UserFunction lookup(Environment v){
+		Entry e = entry;
+		int now = v.epoch();
+		if ( e == null || e.environment != v || e.epoch != now ){
+			// The epoch is read first, so a definition made during the lookup leaves the entry stale, not wrong
+			e = new Entry(v, v.getFunction(name), now);
+			entry = e;
+		}
+		return e.function;
+	}
+
+	/**
+	 * Function: name
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @return The name called at the site
+	 */
+	public String name(){
+		return name;
+	}
+}
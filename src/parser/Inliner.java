@@ -0,0 +1,221 @@
+package parser;
+
+import java.util.Vector;
+import lexer.Symbols;
+
+/**
+ * File: Inliner.java
+ *
+ * Substitutes the bodies of small user-defined functions for calls of
+ * them, when the function calling them is defined. A call is inlined
+ * only if the function it calls is currently defined, is not memoized,
+ * cannot call itself, even indirectly, takes as many parameters as the
+ * call gives it and has a body of at most -Dlisp.inline.size nodes (32
+ * unless given; 0 turns inlining off).
+ *
+ * Every actual parameter must also be a variable or a constant, so
+ * that putting it in place of each use of the formal in the body is
+ * exactly the same as evaluating it once before the body: it cannot
+ * fail, and it costs nothing to evaluate more than once, or not at all.
+ * The body is then folded again, since the constants given for its
+ * formals may let more of it be worked out.
+ *
+ * The function keeps the names of the functions inlined into it, and
+ * the Environment defines it again whenever one of those is redefined.
+ *
+ * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+ * @since 2026-10-18
+ * @version 2026-10-18
+ *
+ * @see UserFunction
+ * @see ConstantFolder
+ */
+
+final class Inliner{
+
+	private static final int QUOTE = Symbols.intern("QUOTE");
+	private static final int DEFUN = Symbols.intern("DEFUN");
+	private static final int DEFMEMO = Symbols.intern("DEFMEMO");
+	private static final int COND = Symbols.intern("COND");
+	private static final int SIZE = Integer.getInteger("lisp.inline.size", 32);
+
+	private Inliner(){}
+
+	/**
+	 * Function: inline
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param e A form of a function body, with its variables resolved
+	 * @param env The environment the function is being defined in
+	 * @param caller The name of the function the body belongs to
+	 * @param inlined Filled in with the names of the functions inlined
+	 *
+	 * @return The form with the calls which can be inlined replaced by
+	 *         the bodies they call, or e itself if there are none
+	 */
+	static TreeNode inline(TreeNode e, Environment env, String caller, Vector <String> inlined){
+		if ( SIZE <= 0 || !(e instanceof SExpression) ){
+			return e;
+		}
+
+		SExpression s = (SExpression) e;
+		int symbol = s.address.symbol();
+		if ( symbol == QUOTE || symbol == DEFUN || symbol == DEFMEMO ){
+			return e;
+		}
+
+		// Inline within the elements first, so that the arguments are in their final form
+		Vector <TreeNode> elements = new Vector <TreeNode> ();
+		TreeNode form = elements(e, elements, env, caller, inlined, symbol == COND);
+		TreeNode t = e;
+		while ( t instanceof SExpression ){
+			t = ((SExpression) t).data;
+		}
+
+		if ( t != Atom.NIL || symbol == COND || !(s.address instanceof Atom) || symbol < 0 || Primitives.isPrimitive(symbol) ){
+			return form;
+		}
+		String name = s.address.toString();
+		UserFunction f = env.getFunction(name);
+		if ( f == null || name.equals(caller) || f.memo != null || f.formals.size() != elements.size() - 1
+				|| ConstantFolder.size(f.body) > SIZE || f.mayCall(name) ){
+			return form;
+		}
+		for ( int i = 1; i < elements.size(); i++ ){
+			if ( !isTrivial(elements.get(i)) ){
+				return form;
+			}
+		}
+		TreeNode body = f.body;
+		if ( body instanceof SExpression && ((SExpression) body).address instanceof Atom && ((Atom) ((SExpression) body).address).isNumber() ){
+			// Such a body means something else outside the tail of a function
+			return form;
+		}
+
+		TreeNode[] actuals = new TreeNode[elements.size() - 1];
+		for ( int i = 0; i < actuals.length; i++ ){
+			actuals[i] = elements.get(i + 1);
+		}
+		TreeNode substituted = substitute(body, actuals, false);
+		if ( substituted == null ){
+			return form;
+		}
+		if ( !inlined.contains(name) ){
+			inlined.add(name);
+		}
+		return ConstantFolder.fold(substituted);
+	}
+
+	/**
+	 * Function: elements
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param e A list of forms, or a COND
+	 * @param elements Filled in with the elements of the list, inlined
+	 * @param env The environment the function is being defined in
+	 * @param caller The name of the function the list belongs to
+	 * @param inlined Filled in with the names of the functions inlined
+	 * @param clauses Whether the elements after the first are the clauses
+	 *                of a COND, rather than forms
+	 *
+	 * @return The list of the inlined elements, or e itself if none changed
+	 */
+	private static TreeNode elements(TreeNode e, Vector <TreeNode> elements, Environment env, String caller, Vector <String> inlined, boolean clauses){
+		boolean changed = false;
+		TreeNode t = e;
+		while ( t instanceof SExpression ){
+			TreeNode element = ((SExpression) t).address;
+			TreeNode expanded;
+			if ( clauses && !elements.isEmpty() ){
+				// A clause is not a call: its test and its result are
+				expanded = elements(element, new Vector <TreeNode> (), env, caller, inlined, false);
+			} else {
+				expanded = inline(element, env, caller, inlined);
+			}
+			elements.add(expanded);
+			changed = changed || expanded != element;
+			t = ((SExpression) t).data;
+		}
+		if ( !changed ){
+			return e;
+		}
+		TreeNode form = t;
+		for ( int i = elements.size() - 1; i >= 0; i-- ){
+			form = new SExpression(elements.get(i), form);
+		}
+		return form;
+	}
+
+	/**
+	 * Function: substitute
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param t A form of the body of the function called
+	 * @param actuals The actual parameters of the call
+	 * @param clause Whether t is a clause of a COND rather than a form
+	 *
+	 * @return The form with each formal replaced by its actual, or null
+	 *         if a formal heads a list, where a variable and a constant
+	 *         do not mean the same
+	 */
+	private static TreeNode substitute(TreeNode t, TreeNode[] actuals, boolean clause){
+		if ( t instanceof Variable ){
+			return actuals[((Variable) t).slot];
+		} else if ( !(t instanceof SExpression) ){
+			return t;
+		}
+
+		SExpression s = (SExpression) t;
+		if ( s.address instanceof Variable && !clause ){
+			return null;
+		} else if ( s.address.symbol() == QUOTE || s.address.symbol() == DEFUN || s.address.symbol() == DEFMEMO ){
+			return s;
+		}
+
+		Vector <TreeNode> elements = new Vector <TreeNode> ();
+		TreeNode rest = t;
+		while ( rest instanceof SExpression ){
+			boolean isClause = !clause && s.address.symbol() == COND && !elements.isEmpty();
+			TreeNode element = substitute(((SExpression) rest).address, actuals, isClause);
+			if ( element == null ){
+				return null;
+			}
+			elements.add(element);
+			rest = ((SExpression) rest).data;
+		}
+		TreeNode form = substitute(rest, actuals, false);
+		for ( int i = elements.size() - 1; i >= 0; i-- ){
+			form = new SExpression(elements.get(i), form);
+		}
+		return form;
+	}
+
+	/**
+	 * Function: isTrivial
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param e An actual parameter
+	 *
+	 * @return True if it is a variable, an atom or a quotation
+	 */
+	private static boolean isTrivial(TreeNode e){
+		if ( e instanceof Variable || e instanceof Atom ){
+			return true;
+		}
+		return e instanceof SExpression && ((SExpression) e).address.symbol() == QUOTE
+			&& ((SExpression) e).data instanceof SExpression
+			&& ((SExpression) ((SExpression) e).data).data == Atom.NIL;
+	}
+}
@@ -0,0 +1,115 @@
+package parser;
+
+import java.io.PrintStream;
+
+/**
+ * File: Interpreter.java
+ *
+ * A session of the interpreter: the Environment its functions are
+ * defined in, the top-level frame its statements are evaluated in and
+ * the stream its results are printed to. Nothing a program does is kept
+ * anywhere else, so any number of sessions can run side by side in one
+ * JVM, each on a thread of its own, without seeing one another's
+ * definitions or output.
+ *
+ * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+ * @since 2026-10-18
+ * @version 2026-10-18
+ *
+ * @see Environment
+ * @see Parser
+ */
+
+public final class Interpreter{
+	private final Environment environment;
+	private final Frame frame;
+	private final PrintStream out;
+
+	/**
+	 * Function: Interpreter
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param o The stream the value of each statement is printed to
+	 */
+	public Interpreter(PrintStream o){
+		this(o, null);
+	}
+
+	/**
+	 * Function: Interpreter
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param o The stream the value of each statement is printed to
+	 * @param library A sealed environment whose functions the session may
+	 *                call as well as its own, or null
+	 *
+	 * @see Environment
+	 */
+	public Interpreter(PrintStream o, Environment library){
+		environment = new Environment(library);
+		frame = new Frame(new TreeNode[0], environment);
+		out = o;
+	}
+
+	/**
+	 * Function: environment
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @return The environment the session's functions are defined in
+	 */
+	public Environment environment(){
+		return environment;
+	}
+
+	/**
+	 * Function: frame
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @return The frame top-level statements are evaluated in, which binds nothing
+	 */
+	public Frame frame(){
+		return frame;
+	}
+
+	/**
+	 * Function: run
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param statement A top-level statement
+	 *
+	 * @return Its value, from the tree-walking evaluator
+	 *
+	 * @throws Exception If evaluation fails
+	 */
+	public TreeNode run(TreeNode statement) throws Exception{
+		return statement.evaluate(frame);
+	}
+
+	/**
+	 * Function: out
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @return The stream the value of each statement is printed to
+	 */
+	public PrintStream out(){
+		return out;
+	}
+}
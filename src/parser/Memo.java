@@ -0,0 +1,230 @@
+package parser;
+
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * File: Memo.java
+ *
+ * The cache of results of a memoized function (one defined with
+ * DEFMEMO rather than DEFUN). Results are keyed on the structure of the
+ * actual parameters, so two calls with equal numbers and equal lists
+ * share an entry even if the values are different objects, and only the
+ * most recently used entries are kept: once the cache is full, adding
+ * an entry evicts the one used longest ago.
+ *
+ * The cache is emptied whenever the function, or any function it may
+ * call, is redefined. Hits, misses and evictions are counted for as
+ * long as the function is defined and can be read with MEMOSTATS.
+ *
+ * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+ * @since 2026-10-18
+ * @version 2026-10-18
+ *
+ * @see UserFunction
+ */
+
+final class Memo{
+
+	/**
+	 * Class: Key
+	 *
+	 * The actual parameters of a call, compared by structure
+	 */
+	private static final class Key{
+		final TreeNode[] actuals;
+		final int hash;
+
+		Key(TreeNode[] a){
+			actuals = a;
+			int h = a.length;
+			for ( TreeNode t : a ){
+				h = 31 * h + hash(t);
+			}
+			hash = h;
+		}
+
+		public int hashCode(){
+			return hash;
+		}
+
+		public boolean equals(Object o){
+			if ( !(o instanceof Key) || ((Key) o).hash != hash || ((Key) o).actuals.length != actuals.length ){
+				return false;
+			}
+			for ( int i = 0; i < actuals.length; i++ ){
+				if ( !same(actuals[i], ((Key) o).actuals[i]) ){
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	private final int capacity;
+	private final LinkedHashMap <Key, TreeNode> entries;
+	private long hits = 0;
+	private long misses = 0;
+	private long evictions = 0;
+
+	/**
+	 * Function: Memo
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param c The most entries to keep
+	 */
+	Memo(int c){
+		capacity = Math.max(c, 1);
+		entries = new LinkedHashMap <Key, TreeNode> (16, 0.75f, true){
+			protected boolean removeEldestEntry(Map.Entry <Key, TreeNode> eldest){
+				if ( size() > capacity ){
+					evictions++;
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Function: get
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param actuals The values of the actual parameters of a call
+	 *
+	 * @return The remembered result of the call, or null if there is none
+	 */
+	synchronized TreeNode get(TreeNode[] actuals){
+		TreeNode v = entries.get(new Key(actuals));
+		if ( v == null ){
+			misses++;
+		} else {
+			hits++;
+		}
+		return v;
+	}
+
+	/**
+	 * Function: put
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param actuals The values of the actual parameters of a call
+	 * @param result The result of the call
+	 */
+	synchronized void put(TreeNode[] actuals, TreeNode result){
+		entries.put(new Key(actuals.clone()), result);
+	}
+
+	/**
+	 * Function: clear
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 */
+	synchronized void clear(){
+		entries.clear();
+	}
+
+	/**
+	 * Function: statistics
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @return The hits, misses, evictions and current number of entries
+	 */
+	synchronized long[] statistics(){
+		return new long[] { hits, misses, evictions, entries.size() };
+	}
+
+	/**
+	 * Function: hash
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param root A value
+	 *
+	 * @return A hash of its structure, consistent with same
+	 */
+	private static int hash(TreeNode root){
+		int h = 1;
+		ArrayDeque <TreeNode> work = new ArrayDeque <TreeNode> ();
+		work.push(root);
+		while ( !work.isEmpty() ){
+			TreeNode t = work.pop();
+			if ( t instanceof SExpression ){
+				h = 31 * h + 7;
+				work.push(((SExpression) t).data);
+				work.push(((SExpression) t).address);
+			} else {
+				h = 31 * h + atomHash(t);
+			}
+		}
+		return h;
+	}
+
+	/**
+	 * Function: same
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param x A value
+	 * @param y A value
+	 *
+	 * @return True if the two have the same structure and equal atoms
+	 */
+	private static boolean same(TreeNode x, TreeNode y){
+		ArrayDeque <TreeNode> work = new ArrayDeque <TreeNode> ();
+		work.push(x);
+		work.push(y);
+		while ( !work.isEmpty() ){
+			TreeNode b = work.pop();
+			TreeNode a = work.pop();
+			if ( a == b ){
+				continue;
+			} else if ( a instanceof SExpression && b instanceof SExpression ){
+				work.push(((SExpression) a).data);
+				work.push(((SExpression) b).data);
+				work.push(((SExpression) a).address);
+				work.push(((SExpression) b).address);
+			} else if ( !(a instanceof Atom) || !(b instanceof Atom) || !((Atom) a).sameValue((Atom) b) ){
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Function: atomHash
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param t A value which is not an S-Expression
+	 *
+	 * @return Its hash; equal numbers hash alike whatever object holds them
+	 */
+	private static int atomHash(TreeNode t){
+		if ( !(t instanceof Atom) ){
+			return System.identityHashCode(t);
+		}
+		return ((Atom) t).valueHash();
+	}
+}
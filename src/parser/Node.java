@@ -0,0 +1,272 @@
+package parser;
+
+/**
+ * File: Node.java
+ * 
+ * The executable form of the body of a user-defined function. When a
+ * function is defined its body is compiled, once, into a tree of these
+ * nodes, each specialized to one kind of expression: a constant, a read
+ * of a local variable, a call of a primitive, a call of a user-defined
+ * function or a COND. Running the function is then just a matter of
+ * executing the tree against the frame of the call; nothing is looked up
+ * by name except the user-defined functions, which may be redefined.
+ * A call in tail position does not make the call itself but hands it
+ * back to UserFunction, which runs it in place of the current one.
+ * 
+ * Anything the compiler does not recognize is kept as an Interpret node,
+ * which hands the expression to the tree-walking evaluator so that its
+ * behaviour (including its errors) is exactly what it was.
+ * 
+ * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+ * @since 2026-10-18
+ * @version 2026-10-18
+ *
+ * @see NodeCompiler
+ */
+
+abstract class Node{
+
+	/**
+	 * Function: execute
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param f The frame of the call being run
+	 * 
+	 * @return The value of the expression
+	 * 
+	 * @throws Exception If evaluation fails
+	 */
+	abstract TreeNode execute(Frame f) throws Exception;
+
+	/**
+	 * Class: Constant
+	 * 
+	 * An atom, a quoted datum, or anything else whose value is known
+	 * when the function is defined
+	 */
+	static final class Constant extends Node{
+		final TreeNode value;
+
+		Constant(TreeNode v){
+			value = v;
+		}
+
+		TreeNode execute(Frame f){
+			return value;
+		}
+	}
+
+	/**
+	 * Class: LocalRead
+	 * 
+	 * A read of a variable at a known (depth, slot)
+	 */
+	static final class LocalRead extends Node{
+		final int depth;
+		final int slot;
+
+		LocalRead(int d, int s){
+			depth = d;
+			slot = s;
+		}
+
+		TreeNode execute(Frame f){
+			return depth == 0 ? f.slots[slot] : f.get(depth, slot);
+		}
+	}
+
+	/**
+	 * Class: PrimitiveCall
+	 * 
+	 * A call of one of the primitives which take evaluated arguments.
+	 * The operation is picked by a switch on a small integer, which keeps
+	 * each primitive a direct (and inlinable) static call.
+	 */
+	static final class PrimitiveCall extends Node{
+		static final int CONS = 0;
+		static final int CAR = 1;
+		static final int CDR = 2;
+		static final int ATOM = 3;
+		static final int EQ = 4;
+		static final int NULL = 5;
+		static final int INT = 6;
+		static final int PLUS = 7;
+		static final int MINUS = 8;
+		static final int TIMES = 9;
+		static final int QUOTIENT = 10;
+		static final int REMAINDER = 11;
+		static final int LESS = 12;
+		static final int GREATER = 13;
+
+		final int op;
+		final Node first;
+		final Node second;
+
+		PrimitiveCall(int o, Node a, Node b){
+			op = o;
+			first = a;
+			second = b;
+		}
+
+		TreeNode execute(Frame f) throws Exception{
+			TreeNode x = first.execute(f);
+			return apply(op, x, second == null ? null : second.execute(f));
+		}
+
+		static TreeNode apply(int op, TreeNode x, TreeNode y) throws Exception{
+			switch ( op ){
+				case CAR: return Primitives.car(x);
+				case CDR: return Primitives.cdr(x);
+				case ATOM: return Primitives.atom(x);
+				case NULL: return Primitives.isNull(x);
+				case INT: return Primitives.isInt(x);
+				case CONS: return Primitives.cons(x, y);
+				case EQ: return Primitives.eq(x, y);
+				case PLUS: return Primitives.plus(x, y);
+				case MINUS: return Primitives.minus(x, y);
+				case TIMES: return Primitives.times(x, y);
+				case QUOTIENT: return Primitives.quotient(x, y);
+				case REMAINDER: return Primitives.remainder(x, y);
+				case LESS: return Primitives.less(x, y);
+				case GREATER: return Primitives.greater(x, y);
+				default: throw new Exception("Error! Unknown primitive: " + op);
+			}
+		}
+	}
+
+	/**
+	 * Class: UserCall
+	 * 
+	 * A call of a user-defined function. The function is found by name
+	 * at the time of the call, since it may not be defined yet when the
+	 * caller is compiled, and may be redefined afterwards; the site keeps
+	 * what it found for as long as no function is defined.
+	 */
+	static final class UserCall extends Node{
+		final InlineCache site;
+		final Node[] arguments;
+
+		UserCall(String n, Node[] a){
+			site = new InlineCache(n);
+			arguments = a;
+		}
+
+		TreeNode execute(Frame f) throws Exception{
+			UserFunction fn = site.lookup(f.environment);
+			if ( fn == null ){
+				throw new Exception("Error! Undefined function: " + site.name());
+			}
+			return fn.call(arguments, f);
+		}
+	}
+
+	/**
+	 * Class: TailCall
+	 * 
+	 * A call of a user-defined function in tail position. Its value is
+	 * a pending call, which the caller's UserFunction then runs once the
+	 * caller has returned, so a chain of tail calls runs in constant
+	 * Java stack.
+	 */
+	static final class TailCall extends Node{
+		final InlineCache site;
+		final Node[] arguments;
+
+		TailCall(String n, Node[] a){
+			site = new InlineCache(n);
+			arguments = a;
+		}
+
+		TreeNode execute(Frame f) throws Exception{
+			UserFunction fn = site.lookup(f.environment);
+			if ( fn == null ){
+				throw new Exception("Error! Undefined function: " + site.name());
+			}
+			return fn.defer(arguments, f);
+		}
+	}
+
+	/**
+	 * Class: ParallelCall
+	 * 
+	 * A PCALL: a call of a user-defined function, found as a UserCall
+	 * finds it, or of a primitive, whose actual parameters are run in
+	 * parallel. Its value is that of the call, run then and there even
+	 * in tail position.
+	 */
+	static final class ParallelCall extends Node{
+		final InlineCache site;
+		final int op;
+		final Node[] arguments;
+
+		ParallelCall(String n, Node[] a){
+			site = new InlineCache(n);
+			op = -1;
+			arguments = a;
+		}
+
+		ParallelCall(int o, Node[] a){
+			site = null;
+			op = o;
+			arguments = a;
+		}
+
+		TreeNode execute(Frame f) throws Exception{
+			if ( site == null ){
+				TreeNode[] values = Parallel.execute(arguments, f);
+				return PrimitiveCall.apply(op, values[0], values.length > 1 ? values[1] : null);
+			}
+			UserFunction fn = site.lookup(f.environment);
+			if ( fn == null ){
+				throw new Exception("Error! Undefined function: " + site.name());
+			}
+			return fn.invoke(Parallel.execute(arguments, f));
+		}
+	}
+
+	/**
+	 * Class: Cond
+	 * 
+	 * A COND, with the test and the result of each clause compiled
+	 */
+	static final class Cond extends Node{
+		final Node[] tests;
+		final Node[] results;
+
+		Cond(Node[] t, Node[] r){
+			tests = t;
+			results = r;
+		}
+
+		TreeNode execute(Frame f) throws Exception{
+			for ( int i = 0; i < tests.length; i++ ){
+				if ( tests[i].execute(f) == Atom.T ){
+					return results[i].execute(f);
+				}
+			}
+			throw new Exception("Error! No condition in COND was true.");
+		}
+	}
+
+	/**
+	 * Class: Interpret
+	 * 
+	 * An expression left to the tree-walking evaluator
+	 */
+	static final class Interpret extends Node{
+		final TreeNode form;
+		final boolean flag;
+
+		Interpret(TreeNode e, boolean l){
+			form = e;
+			flag = l;
+		}
+
+		TreeNode execute(Frame f) throws Exception{
+			return form.evaluate(flag, f);
+		}
+	}
+}
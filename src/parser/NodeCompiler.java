@@ -0,0 +1,203 @@
+package parser;
+
+import java.util.Arrays;
+import java.util.Vector;
+import lexer.Symbols;
+
+/**
+ * File: NodeCompiler.java
+ * 
+ * Compiles the (already resolved) body of a user-defined function into
+ * a tree of executable nodes. Each form is looked at once, here, and
+ * turned into the node which does exactly what the evaluator would do
+ * with it: the flag which says whether numerals are taken literally is
+ * known for every position in the body, so it is settled now as well,
+ * as is whether each call is in tail position: the body itself and the
+ * results of a COND in tail position are, and calls there become
+ * TailCall nodes so that they do not use up the Java stack. Forms which
+ * are not in one of the usual shapes are left for the evaluator.
+ * 
+ * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+ * @since 2026-10-18
+ * @version 2026-10-18
+ *
+ * @see Node
+ */
+
+final class NodeCompiler{
+
+	private static final int QUOTE = Symbols.intern("QUOTE");
+	private static final int COND = Symbols.intern("COND");
+	private static final int PCALL = Symbols.intern("PCALL");
+
+	// Indexed by the operation codes of Node.PrimitiveCall
+	private static final String[] OPERATIONS = { "CONS", "CAR", "CDR", "ATOM", "EQ", "NULL", "INT",
+		"PLUS", "MINUS", "TIMES", "QUOTIENT", "REMAINDER", "LESS", "GREATER" };
+	private static final int[] ARITY = { 2, 1, 1, 1, 2, 1, 1, 2, 2, 2, 2, 2, 2, 2 };
+	private static final boolean[] LITERAL = { false, false, false, false, true, false, true,
+		true, true, true, true, true, true, true };
+	private static final int[] operationOf;
+
+	static {
+		int[] ops = new int[0];
+		for ( int op = 0; op < OPERATIONS.length; op++ ){
+			int id = Symbols.intern(OPERATIONS[op]);
+			if ( id >= ops.length ){
+				int[] grown = new int[id + 1];
+				Arrays.fill(grown, -1);
+				System.arraycopy(ops, 0, grown, 0, ops.length);
+				ops = grown;
+			}
+			ops[id] = op;
+		}
+		operationOf = ops;
+	}
+
+	private NodeCompiler(){}
+
+	/**
+	 * Function: compile
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param e A form of a function body, with its variables resolved
+	 * @param flag Whether or not numerals heading the form are taken literally
+	 * @param tail Whether the value of the form is the value of the function
+	 * 
+	 * @return The executable node for the form
+	 */
+	static Node compile(TreeNode e, boolean flag, boolean tail){
+		if ( e instanceof Variable ){
+			return new Node.LocalRead(((Variable) e).depth, ((Variable) e).slot);
+		} else if ( !(e instanceof SExpression) ){
+			return new Node.Constant(e);
+		}
+
+		SExpression s = (SExpression) e;
+		if ( s.address instanceof Variable ){
+			return compile(s.address, flag, tail);
+		} else if ( !(s.address instanceof Atom) ){
+			return new Node.Interpret(e, flag);
+		}
+
+		Atom head = (Atom) s.address;
+		if ( head == Atom.NIL || head == Atom.T || ( flag && head.isNumber() ) ){
+			return new Node.Constant(head);
+		}
+
+		Vector <TreeNode> args = arguments(s);
+		if ( args == null || head.isNumber() ){
+			return new Node.Interpret(e, flag);
+		}
+
+		int symbol = head.symbol();
+		if ( symbol == QUOTE ){
+			return args.isEmpty() ? new Node.Interpret(e, flag) : new Node.Constant(args.get(0));
+		} else if ( symbol == COND ){
+			return compileCond(e, args, flag, tail);
+		} else if ( symbol == PCALL ){
+			return compileParallel(e, args, flag);
+		} else if ( Primitives.lookup(symbol) != null ){
+			int op = symbol < operationOf.length ? operationOf[symbol] : -1;
+			if ( op < 0 || args.size() < ARITY[op] ){
+				return new Node.Interpret(e, flag);
+			}
+			Node first = compile(args.get(0), LITERAL[op], false);
+			Node second = ARITY[op] > 1 ? compile(args.get(1), LITERAL[op], false) : null;
+			return new Node.PrimitiveCall(op, first, second);
+		}
+
+		Node[] actuals = new Node[args.size()];
+		for ( int i = 0; i < actuals.length; i++ ){
+			actuals[i] = compile(args.get(i), false, false);
+		}
+		return tail ? new Node.TailCall(head.toString(), actuals) : new Node.UserCall(head.toString(), actuals);
+	}
+
+	/**
+	 * Function: compileParallel
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param e The whole PCALL form
+	 * @param args The name of the function called, then its actual parameters
+	 * @param flag Whether or not numerals heading the form are taken literally
+	 * 
+	 * @return The node for the PCALL, or an Interpret node if it calls
+	 *         something other than a user-defined function or one of the
+	 *         compiled primitives
+	 */
+	private static Node compileParallel(TreeNode e, Vector <TreeNode> args, boolean flag){
+		if ( args.isEmpty() || !(args.get(0) instanceof Atom) || ((Atom) args.get(0)).isNumber() ){
+			return new Node.Interpret(e, flag);
+		}
+		Atom callee = (Atom) args.get(0);
+		Node[] actuals = new Node[args.size() - 1];
+		for ( int i = 0; i < actuals.length; i++ ){
+			actuals[i] = compile(args.get(i + 1), false, false);
+		}
+
+		int symbol = callee.symbol();
+		if ( Primitives.lookup(symbol) == null ){
+			return new Node.ParallelCall(callee.toString(), actuals);
+		}
+		int op = symbol < operationOf.length ? operationOf[symbol] : -1;
+		if ( op < 0 || actuals.length < ARITY[op] ){
+			return new Node.Interpret(e, flag);
+		}
+		return new Node.ParallelCall(op, actuals);
+	}
+
+	/**
+	 * Function: compileCond
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param e The whole COND form
+	 * @param clauses The clauses of the COND
+	 * @param flag Whether or not numerals heading the form are taken literally
+	 * @param tail Whether the COND is in tail position, and so are its results
+	 * 
+	 * @return The node for the COND, or an Interpret node if a clause is malformed
+	 */
+	private static Node compileCond(TreeNode e, Vector <TreeNode> clauses, boolean flag, boolean tail){
+		Node[] tests = new Node[clauses.size()];
+		Node[] results = new Node[clauses.size()];
+		for ( int i = 0; i < tests.length; i++ ){
+			TreeNode c = clauses.get(i);
+			if ( !(c instanceof SExpression) || !(((SExpression) c).data instanceof SExpression) ){
+				return new Node.Interpret(e, flag);
+			}
+			tests[i] = compile(((SExpression) c).address, false, false);
+			results[i] = compile(((SExpression) ((SExpression) c).data).address, true, tail);
+		}
+		return new Node.Cond(tests, results);
+	}
+
+	/**
+	 * Function: arguments
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param s A form
+	 * 
+	 * @return The arguments of the form, or null if they are not a proper list
+	 */
+	private static Vector <TreeNode> arguments(SExpression s){
+		Vector <TreeNode> args = new Vector <TreeNode> ();
+		TreeNode t = s.data;
+		while ( t instanceof SExpression ){
+			args.add(((SExpression) t).address);
+			t = ((SExpression) t).data;
+		}
+		return t == Atom.NIL ? args : null;
+	}
+}
@@ -0,0 +1,242 @@
+package parser;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * File: Parallel.java
+ *
+ * Evaluates the actual parameters of a PCALL as fork-join tasks. Each
+ * argument but the last is forked, and the last is evaluated by the
+ * thread making the call, which then joins the others in reverse,
+ * running any which no other thread has taken itself. A PCALL in a
+ * compiled body hands over its arguments compiled; one evaluated by the
+ * tree-walker, or by another engine, has its forms wrapped to match.
+ *
+ * Forking only pays for arguments with a good deal of work in them, and
+ * a tree-recursive function forks at every level. So an argument is only
+ * forked while the thread has no more than -Dlisp.pcall.grain tasks
+ * (3 unless given) queued beyond what the idle threads of the pool can
+ * be expected to take; otherwise it is evaluated then and there. Near
+ * the leaves of the recursion, where the subproblems are small, the
+ * queues are full and the calls run inline, at the cost of a check.
+ *
+ * A PCALL made on a thread of a ForkJoinPool (a statement being run by
+ * the Scheduler, say, or the argument of an enclosing PCALL) forks into
+ * that pool; any other is run in a pool kept for the purpose, of
+ * -Dlisp.pcall.threads threads (one per processor unless given).
+ *
+ * Every argument is evaluated, even if an earlier one fails; the error
+ * then reported is that of the first argument to fail, which is the one
+ * evaluating them in order would have reported.
+ *
+ * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+ * @since 2026-10-18
+ * @version 2026-10-18
+ *
+ * @see Primitives
+ */
+
+final class Parallel{
+
+	private static final int GRAIN = Integer.getInteger("lisp.pcall.grain", 3);
+
+	/**
+	 * Class: Pool
+	 *
+	 * Holds the pool for PCALLs made outside any other, made the first
+	 * time one is
+	 */
+	private static final class Pool{
+		static final ForkJoinPool POOL = new ForkJoinPool(Integer.getInteger("lisp.pcall.threads", Runtime.getRuntime().availableProcessors()));
+	}
+
+	/**
+	 * Class: Argument
+	 *
+	 * The evaluation of one forked actual parameter, and what became of it
+	 */
+	private static final class Argument extends RecursiveAction{
+		private static final long serialVersionUID = 1L;
+
+		final Node form;
+		final Frame env;
+		TreeNode value = null;
+		Throwable failure = null;
+
+		Argument(Node f, Frame e){
+			form = f;
+			env = e;
+		}
+
+		protected void compute(){
+			try{
+				value = form.execute(env);
+			} catch (Throwable t){
+				failure = t;
+			}
+		}
+	}
+
+	/**
+	 * Class: All
+	 *
+	 * The evaluation of every actual parameter, as a task of its own so
+	 * that it can be handed to a pool
+	 */
+	private static final class All extends RecursiveAction{
+		private static final long serialVersionUID = 1L;
+
+		final Node[] forms;
+		final Frame env;
+		TreeNode[] values = null;
+		Throwable failure = null;
+
+		All(Node[] f, Frame e){
+			forms = f;
+			env = e;
+		}
+
+		protected void compute(){
+			try{
+				values = run(forms, env);
+			} catch (Throwable t){
+				failure = t;
+			}
+		}
+	}
+
+	private Parallel(){}
+
+	/**
+	 * Function: evaluate
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param forms The actual parameters
+	 * @param env The frame to evaluate them in
+	 *
+	 * @return Their values, in order
+	 *
+	 * @throws Exception If evaluating any of them fails
+	 */
+	static TreeNode[] evaluate(TreeNode[] forms, Frame env) throws Exception{
+		Node[] nodes = new Node[forms.length];
+		for ( int i = 0; i < forms.length; i++ ){
+			nodes[i] = new Node.Interpret(forms[i], false);
+		}
+		return execute(nodes, env);
+	}
+
+	/**
+	 * Function: execute
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param forms The compiled actual parameters
+	 * @param env The frame to run them in
+	 *
+	 * @return Their values, in order
+	 *
+	 * @throws Exception If running any of them fails
+	 */
+	static TreeNode[] execute(Node[] forms, Frame env) throws Exception{
+		if ( ForkJoinTask.inForkJoinPool() ){
+			return run(forms, env);
+		}
+		All all = new All(forms, env);
+		Pool.POOL.invoke(all);
+		if ( all.failure != null ){
+			rethrow(all.failure);
+		}
+		return all.values;
+	}
+
+	/**
+	 * Function: run
+	 *
+	 * Evaluates the arguments on the current thread of a pool, forking
+	 * those which are worth it. Those which are not are run then and
+	 * there, so when the queues are full the call costs no more than an
+	 * ordinary one and a check per argument.
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param forms The compiled actual parameters
+	 * @param env The frame to run them in
+	 *
+	 * @return Their values, in order
+	 *
+	 * @throws Exception If running any of them fails
+	 */
+	private static TreeNode[] run(Node[] forms, Frame env) throws Exception{
+		int last = forms.length - 1;
+		TreeNode[] values = new TreeNode[forms.length];
+		Argument[] forked = null;
+		Throwable failure = null;
+		int failed = forms.length;
+		for ( int i = 0; i <= last; i++ ){
+			if ( i < last && ForkJoinTask.getSurplusQueuedTaskCount() <= GRAIN ){
+				if ( forked == null ){
+					forked = new Argument[last];
+				}
+				forked[i] = new Argument(forms[i], env);
+				forked[i].fork();
+				continue;
+			}
+			try{
+				values[i] = forms[i].execute(env);
+			} catch (Throwable t){
+				if ( failure == null ){
+					failure = t;
+					failed = i;
+				}
+			}
+		}
+		if ( forked != null ){
+			for ( int i = last - 1; i >= 0; i-- ){
+				if ( forked[i] != null ){
+					forked[i].join();
+					values[i] = forked[i].value;
+					// The first argument to fail, in order, is the one reported
+					if ( forked[i].failure != null && i < failed ){
+						failure = forked[i].failure;
+						failed = i;
+					}
+				}
+			}
+		}
+		if ( failure != null ){
+			rethrow(failure);
+		}
+		return values;
+	}
+
+	/**
+	 * Function: rethrow
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param t What went wrong running an argument
+	 *
+	 * @throws Exception Always: t itself, unless it is neither an
+	 *                   Exception nor an Error
+	 */
+	private static void rethrow(Throwable t) throws Exception{
+		if ( t instanceof Exception ){
+			throw (Exception) t;
+		} else if ( t instanceof Error ){
+			throw (Error) t;
+		}
+		throw new Exception(t);
+	}
+}
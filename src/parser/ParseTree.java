@@ -21,22 +21,19 @@ class ParseTree{
 	/**
 	 * Function: ParseTree
 	 * 
-	 * Constructor(Vector <String> s)
+	 * Constructor(TreeNode t)
 	 * 
-	 * Uses the given vector to create the root. It calls the
-	 * TreeNode factory constructor
+	 * Uses the given node, as built by the reader, as the root
 	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
 	 * @since 2012-11-01
-	 * @version 2012-11-01
+	 * @version 2026-10-18
 	 *
-	 * @param s A vector representing the outermost expression
-	 * 
-	 * @throws Exception If node creation fails
+	 * @param t The outermost expression
 	 *
 	 */
-	public ParseTree(Vector <String> s) throws Exception{
-		root = TreeNode.create(s);
+	public ParseTree(TreeNode t){
+		root = t;
 	}
 
 	/**
@@ -46,15 +43,17 @@ class ParseTree{
 	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
 	 * @since 2012-11-01
-	 * @version 2012-11-01
+	 * @version 2026-10-18
+	 * 
+	 * @param env The top-level frame of the session running the statement
 	 * 
 	 * @return The string of the executed statement
 	 *
 	 * @throws Exception If evaluation fails
 	 *
 	 */
-	protected String evaluate() throws Exception{
-		String rtn = root.evaluate().toString();
+	protected String evaluate(Frame env) throws Exception{
+		String rtn = root.evaluate(env).toString();
 		return rtn;
 	}
 
@@ -3,17 +3,20 @@ package parser;
 import java.util.*;
 import java.lang.*;
 import helpers.StringHelpers;
+import lexer.Lexer;
 
 /**
  * File: Parser.java
  * 
- * This is the main Parser class for the program. It handles the
- * tokens from the lexical analysis, converts them to dot-notation,
- * and provides public access to program evaluation.
+ * This is the main Parser class for the program. It reads the
+ * tokens from the lexical analysis straight into S-Expressions
+ * and provides public access to program evaluation. Statements are
+ * read, parsed and evaluated as a pipeline so output begins before
+ * the input has been fully read.
  * 
  * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
  * @since 2012-11-01
- * @version 2012-11-01
+ * @version 2026-10-18
  *
  * details
  *
@@ -21,188 +24,219 @@ import helpers.StringHelpers;
 
 public class Parser {
 
-	Vector <ParseTree> statements = new Vector <ParseTree> ();
+	private Lexer lexer;
+	private final Interpreter session;
 	
 	/**
 	 * Function: Parser
 	 * 
-	 * Constructor(Vector <String> tokens)
+	 * Constructor(Lexer l)
 	 * 
-	 * This function initializes the parser fro the lexical tokens,
-	 * splitting them into statements, and storing them.
+	 * This function initializes the parser from a lexical analyzer,
+	 * for a new session printing to the standard output.
+	 * Nothing is read yet; statements are pulled from the lexer one
+	 * at a time as they are evaluated.
 	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
 	 * @since 2012-11-01
-	 * @version 2012-11-01
+	 * @version 2026-10-18
 	 *
-	 * @param tokens The vector of lexical tokens from analysis
-	 * 
-	 * @throws Exception If conversion to dot-notation fails
+	 * @param l The lexer supplying the program tokens
 	 *
 	 */
-	public Parser(Vector <String> tokens) throws Exception{
-		Vector <String> t;
-		int i = 0;
-		int k, l;
-
-		while ( i < tokens.size() && i >= 0 ){
-			// The variable l must always hold the last location of the current statement!!!
-			k = tokens.indexOf("(", i);
-			if ( k == i ){
-				// There is a new statement to add - starting at i
-				l = endOfExpression(new Vector <String> (tokens.subList(i, tokens.size()))) + i;
-			} else if ( k > i ){
-				// The next statement is after some non-parenthetical stuff
-				l = k - 1;
-			} else {
-				// There are no more parenthetical statements. Parse the rest of the program
-				l = tokens.size() - 1;
-			}
+	public Parser(Lexer l){
+		this(l, new Interpreter(System.out));
+	}
 
-			t = convertToDotNotation( new Vector <String> (tokens.subList(i, l+1)));
-			statements.add(new ParseTree(t));
+	/**
+	 * Function: Parser
+	 * 
+	 * Constructor(Lexer l, Interpreter s)
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param l The lexer supplying the program tokens
+	 * @param s The session the statements are run in
+	 *
+	 */
+	public Parser(Lexer l, Interpreter s){
+		lexer = l;
+		session = s;
+	}
 
-			i = l + 1;
-		}
+	/**
+	 * Function: session
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @return The session the statements are run in
+	 *
+	 */
+	public Interpreter session(){
+		return session;
 	}
 
 	/**
 	 * Function: evaluate
 	 * 
-	 * This evaluates the statements one-by-one and prints
-	 * the results.
+	 * This reads the statements one-by-one, evaluating each as soon
+	 * as its closing parenthesis arrives and printing the result to
+	 * the output of the session.
+	 * Only the statement currently being evaluated is held in memory.
 	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
 	 * @since 2012-11-01
-	 * @version 2012-11-01
+	 * @version 2026-10-18
 	 * 
 	 * @throws Exception If any evaluation fails on individual statements
 	 *
 	 */
 	public void evaluate() throws Exception{
-		// String rtn = "";
-		for ( int i = 0; i < statements.size(); i++ ){
-			System.out.println(statements.get(i).evaluate());
-			// rtn = rtn + statements.get(i).evaluate();
-			// 			if ( i < statements.size() - 1){
-			// 				rtn = rtn + "\n";
-			// 			}
+		TreeNode t;
+		while ( (t = next()) != null ){
+			ParseTree statement = new ParseTree(t);
+			session.out().println(statement.evaluate(session.frame()));
 		}
-		// return rtn;
 	}
 
 	/**
-	 * Function: convertToDotNotation
+	 * Function: next
 	 * 
-	 * This uses a naïve grammar to split the given program and rejoin
-	 * it into legal Lisp S-Expressions.
+	 * Reads the next top-level statement and works out its constant
+	 * parts, which is what every engine runs
 	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
-	 * @since 2012-11-01
-	 * @version 2012-11-01
+	 * @since 2026-10-18
+	 * @version 2026-10-18
 	 *
-	 * @param s The vector of tokens representing the program
+	 * @return The statement, folded, or null at the end of the input
 	 * 
-	 * @return The program converted to dot notaion in a string vector
+	 * @throws Exception If the parentheses or dots are malformed
 	 *
+	 * @see ConstantFolder
 	 */
-	private Vector <String> convertToDotNotation(Vector <String> s){
-		Vector <String> r = new Vector <String>();
-		Vector <String> temp;
-		int nextInnerToken;
-		if ( s.get(0).matches("[(]") ){
-			// We have a list or S-Expression
-
-			int closeParen = endOfExpression(s);
-			if ( closeParen > 1 ){
-				// The expression is not ()
-
-				r.add("(");
-				if ( closeParen > 2 ){
-					// There is more than one token - so not ( a )
-
-					// Is the first one a nested expression?
-					if ( s.get(1).matches("[(]") ){
-						nextInnerToken = endOfExpression(new Vector <String>(s.subList(1, closeParen))) + 2;
-					} else {
-						nextInnerToken = 2;
-					}
+	public TreeNode next() throws Exception{
+		TreeNode t = read();
+		return t == null ? null : ConstantFolder.statement(session.environment(), t);
+	}
 
-					if ( ! s.get(nextInnerToken).matches("[.]") ){
-						// The expression must be a list because it is not in dot-notation
-						r.addAll(convertToDotNotation(new Vector <String>(s.subList(1,nextInnerToken))));
-						r.add(".");
-						temp = new Vector <String>();
-						temp.add("(");
-						temp.addAll(s.subList(nextInnerToken, closeParen));
-						temp.add(")");
-						r.addAll(convertToDotNotation(temp));
-					} else {
-						// Since it is in the form of ( [stuff] . [stuff] ), we pass [stuff] to be converted
-						r.addAll(convertToDotNotation(new Vector <String>(s.subList(1,nextInnerToken))));
-						r.add(".");
-						r.addAll(convertToDotNotation(new Vector <String>(s.subList(nextInnerToken+1, closeParen))));
-					}
-				} else {
-					// The statement is in the form ( a )
-					r.add(s.get(1));
-					r.add(".");
-					r.add("NIL");
+	/**
+	 * Function: read
+	 * 
+	 * Reads the next complete top-level datum from the lexer and builds
+	 * it straight into Atoms and S-Expressions. Every token is looked at
+	 * once: each open parenthesis pushes a frame collecting the elements
+	 * of that list, and the matching close parenthesis pops it and conses
+	 * the elements together. The nesting is kept on an explicit stack,
+	 * so deeply nested input cannot overflow the Java stack while reading.
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @return The datum, or null at the end of the input
+	 * 
+	 * @throws Exception If the parentheses or dots are malformed
+	 *
+	 */
+	public TreeNode read() throws Exception{
+		ArrayList <ListFrame> stack = new ArrayList <ListFrame> ();
+		while ( true ){
+			TreeNode datum;
+			int kind = lexer.next();
+			if ( kind == Lexer.LITERAL ){
+				datum = Atom.fromToken(lexer.code());
+			} else if ( kind == Lexer.LEFT_PAREN ){
+				stack.add(new ListFrame());
+				continue;
+			} else if ( kind == Lexer.RIGHT_PAREN ){
+				if ( stack.isEmpty() ){
+					throw new Exception("Error! Unbalanced parentheses.");
+				}
+				datum = stack.remove(stack.size() - 1).build();
+			} else if ( kind == Lexer.DOT ){
+				if ( stack.isEmpty() || !stack.get(stack.size() - 1).dot() ){
+					throw new Exception("Error! Misplaced dot.");
 				}
-				r.add(")");
+				continue;
+			} else if ( stack.isEmpty() ){
+				return null;
 			} else {
-				// We have ()
-				r.add("NIL");
+				throw new Exception("Error! Unbalanced parentheses.");
 			}
-		} else {
-			if ( s.indexOf("(") > 0 ){
-				r.addAll(s.subList(0, s.indexOf("(")));
-				r.addAll(convertToDotNotation(new Vector <String>(s.subList(s.indexOf("("), s.size()))));
-			} else {
-				r = s;	
+
+			if ( stack.isEmpty() ){
+				return datum;
 			}
+			stack.get(stack.size() - 1).add(datum);
 		}
-		return r;
 	}
-	
+
 	/**
-	 * Function: endOfExpression
+	 * Class: ListFrame
 	 * 
-	 * This finds the closing parenthesis of a given Lisp segment
+	 * The elements read so far of one list which is still open, along
+	 * with the datum after its dot if it is written in dot-notation.
 	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
-	 * @since 2012-11-01
-	 * @version 2012-11-01
-	 *
-	 * @param s The tokens (in dot-notation) of a segment of Lisp code
-	 * 
-	 * @return the index of the closing parenthesis
-	 * 
-	 * @throws IllegalArgumentException If the vector is not a parenthetical expression
-	 * @throws ArrayIndexOutOfBoundsException If the statement does not have a closing parenthesis
+	 * @since 2026-10-18
+	 * @version 2026-10-18
 	 *
 	 */
-	private int endOfExpression(Vector <String> s) throws IllegalArgumentException, ArrayIndexOutOfBoundsException{
-		if ( ! s.get(0).matches("[(]") ){
-			throw new IllegalArgumentException("ERROR: Tried to find the end of an expression that did not begin with '('.");
+	private static class ListFrame{
+		private ArrayList <TreeNode> elements = new ArrayList <TreeNode> ();
+		private boolean dotted = false;
+		private TreeNode tail = null;
+
+		/**
+		 * Function: dot
+		 * 
+		 * @return False if a dot is not allowed at this point of the list
+		 */
+		boolean dot(){
+			if ( dotted || elements.isEmpty() ){
+				return false;
+			}
+			return dotted = true;
 		}
-		int openPairs = 1;
-		int end = 1;
-		while ( openPairs > 0 ){
-			if ( end >= s.size() ){
-				throw new ArrayIndexOutOfBoundsException("Error! Unbalanced parentheses.");
+
+		/**
+		 * Function: add
+		 * 
+		 * @param t The next element, or the tail if the list is dotted
+		 * 
+		 * @throws Exception If a dotted list has more than one datum after its dot
+		 */
+		void add(TreeNode t) throws Exception{
+			if ( !dotted ){
+				elements.add(t);
+			} else if ( tail == null ){
+				tail = t;
+			} else {
+				throw new Exception("Error! Misplaced dot.");
 			}
-			if ( s.get(end).matches("[)]") ){
-				openPairs--;
-			} else if ( s.get(end).matches("[(]") ){
-				openPairs++;
+		}
+
+		/**
+		 * Function: build
+		 * 
+		 * @return The S-Expression for the list, or NIL for ()
+		 * 
+		 * @throws Exception If the list ended right after its dot
+		 */
+		TreeNode build() throws Exception{
+			if ( dotted && tail == null ){
+				throw new Exception("Error! Misplaced dot.");
 			}
-			if ( openPairs == 0 ){
-				break;
-			} else {
-				end++;
+			TreeNode rtn = dotted ? tail : TreeNode.create(false);
+			for ( int i = elements.size() - 1; i >= 0; i-- ){
+				rtn = new SExpression(elements.get(i), rtn);
 			}
+			return rtn;
 		}
-		return end;
 	}
-}
\ No newline at end of file
+}
@@ -4,46 +4,78 @@ import java.lang.Integer;
 import java.lang.String;
 import java.util.*;
 import helpers.*;
+import lexer.Symbols;
 
 /**
  * File: Primitives.java
  * 
  * This files has the required primitive functions for Lisp
  * 
+ * Every primitive is registered once, when the class is loaded, in a
+ * table indexed by the symbol id of its name, so that dispatching a
+ * call is an array lookup rather than a reflective method search.
+ * 
  * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
  * @since 2012-11-01
  * @version 2012-11-01
  *
  */
 
-class Primitives{
-
-	// public static enum Primitive{
-	// 	PLUS,
-	// 	MINUS,
-	// 	T,
-	// 	NIL,
-	// 	CONS,
-	// 	CAR,
-	// 	CDR,
-	// 	ATOM,
-	// 	EQ,
-	// 	NULL,
-	// 	INT,
-	// 	QUOTIENT,
-	// 	TIMES,
-	// 	REMAINDER,
-	// 	LESS,
-	// 	GREATER,
-	// 	COND,
-	// 	QUOTE,
-	// 	DEFUN
-	// }
+public class Primitives{
+
+	/**
+	 * Interface: Primitive
+	 * 
+	 * A primitive function, taking the (unevaluated) argument list of
+	 * the call in dot-notation and the frame to evaluate it in.
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 */
+	interface Primitive{
+		TreeNode apply(SExpression s, Frame env) throws Exception;
+	}
+
+	private static Primitive[] table = new Primitive[0];
+
+	// The primitives which do not simply evaluate their arguments, and so cannot be handed values by PCALL
+	private static final Set <String> SPECIAL = new HashSet <String> (Arrays.asList(
+		"COND", "QUOTE", "DELAY", "PCALL", "DEFUN", "DEFMEMO", "MEMOSTATS", "FOLDSTATS"));
+
+	static {
+		register("CONS", Primitives::CONS);
+		register("CAR", Primitives::CAR);
+		register("CDR", Primitives::CDR);
+		register("ATOM", Primitives::ATOM);
+		register("EQ", Primitives::EQ);
+		register("NULL", Primitives::NULL);
+		register("INT", Primitives::INT);
+		register("PLUS", Primitives::PLUS);
+		register("MINUS", Primitives::MINUS);
+		register("QUOTIENT", Primitives::QUOTIENT);
+		register("TIMES", Primitives::TIMES);
+		register("REMAINDER", Primitives::REMAINDER);
+		register("LESS", Primitives::LESS);
+		register("GREATER", Primitives::GREATER);
+		register("COND", Primitives::COND);
+		register("QUOTE", Primitives::QUOTE);
+		register("DELAY", Primitives::DELAY);
+		register("FORCE", Primitives::FORCE);
+		register("SCONS", Primitives::SCONS);
+		register("SCDR", Primitives::SCDR);
+		register("PCALL", Primitives::PCALL);
+		register("DEFUN", Primitives::DEFUN);
+		register("DEFMEMO", Primitives::DEFMEMO);
+		register("MEMOSTATS", Primitives::MEMOSTATS);
+		register("FOLDSTATS", Primitives::FOLDSTATS);
+	}
 	
 	/**
 	 * Function: T
 	 * 
-	 * Creates a new atom representing the "true" value
+	 * Gives the atom representing the "true" value
 	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
 	 * @since 2012-11-01
@@ -53,13 +85,13 @@ class Primitives{
 	 *
 	 */
 	public static TreeNode T(){ 
-		return new Atom(true); 
+		return Atom.T;
 	};
 	 
 	/**
 	 * Function: NIL
 	 * 
-	 * Creates an atom to represent the NIL value
+	 * Gives the atom which represents the NIL value
 	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
 	 * @since 2012-11-01
@@ -69,7 +101,7 @@ class Primitives{
 	 *
 	 */
 	public static TreeNode NIL(){ 
-		return new Atom(false); 
+		return Atom.NIL;
 	};
 	 
 	/**
@@ -83,18 +115,18 @@ class Primitives{
  	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
 	 * @since 2012-11-01
-	 * @version 2012-11-01
+	 * @version 2026-10-18
 	 *
 	 * @param s The SExpression arguments in dot-notation
+	 * @param env The frame to evaluate the arguments in
 	 * 
 	 * @return CONS[ CAR[s], CADR[s] ] - the semantically defined CONS
 	 * 
 	 * @throws Exception if the arguments are inappropriate
 	 *
 	 */
-	public static SExpression CONS ( SExpression s ) throws Exception {
-		SExpression tmp = new SExpression(s.dataTokens);
-		return new SExpression(s.address.evaluate(), tmp.address.evaluate());
+	public static TreeNode CONS ( SExpression s, Frame env ) throws Exception {
+		return cons(s.address.evaluate(env), argument(s, 1).evaluate(env));
 	}
 
 	/**
@@ -105,17 +137,18 @@ class Primitives{
 	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
 	 * @since 2012-11-01
-	 * @version 2012-11-01
+	 * @version 2026-10-18
 	 *
 	 * @param s The argument S-Expression
+	 * @param env The frame to evaluate the arguments in
 	 * 
 	 * @return The address of the given S-Exp
 	 * 
 	 * @throws Exception If the S-Expression is incompatible
 	 *
 	 */
-	public static TreeNode CAR ( SExpression s ) throws Exception{
-		return s.address;
+	public static TreeNode CAR ( SExpression s, Frame env ) throws Exception {
+		return car(s.address.evaluate(env));
 	}
 	
 	/**
@@ -125,15 +158,16 @@ class Primitives{
 	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
 	 * @since 2012-11-01
-	 * @version 2012-11-01
+	 * @version 2026-10-18
 	 *
 	 * @param s An S-Expression
+	 * @param env The frame to evaluate the arguments in
 	 * 
 	 * @return The data of the S-Expression
 	 *
 	 */
-	public static TreeNode CDR ( SExpression s )  throws Exception{
-		return s.data;
+	public static TreeNode CDR ( SExpression s, Frame env ) throws Exception{
+		return cdr(s.address.evaluate(env));
 	}
 	 
 	/**
@@ -143,15 +177,16 @@ class Primitives{
 	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
 	 * @since 2012-11-01
-	 * @version 2012-11-01
+	 * @version 2026-10-18
 	 *
 	 * @param s The S-Expression in question
+	 * @param env The frame to evaluate the arguments in
 	 * 
 	 * @return True if it is an atom literal. False otherwise.
 	 *
 	 */
-	public static TreeNode ATOM ( SExpression s ) throws Exception{
-		return TreeNode.create(s.address.evaluate().toString().matches(Patterns.LITERAL));
+	public static TreeNode ATOM ( SExpression s, Frame env ) throws Exception {
+		return atom(s.address.evaluate(env));
 	}
 	 
 	/**
@@ -161,17 +196,18 @@ class Primitives{
 	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
 	 * @since 2012-11-01
-	 * @version 2012-11-01
+	 * @version 2026-10-18
 	 *
 	 * @param s The paramenter S-Expression
+	 * @param env The frame to evaluate the arguments in
 	 * 
 	 * @return T or NIL whether or not they are the same
 	 * 
 	 * @throws Exception If the S-Expression is malformed
 	 *
 	 */
-	public static TreeNode EQ ( SExpression s ) throws Exception{
-		return TreeNode.create(s.address.evaluate(true).toString().matches(s.data.evaluate(true).toString()));
+	public static TreeNode EQ ( SExpression s, Frame env ) throws Exception {
+		return eq(s.address.evaluate(true, env), argument(s, 1).evaluate(true, env));
 	}
 	 
 	/**
@@ -181,17 +217,18 @@ class Primitives{
 	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
 	 * @since 2012-11-01
-	 * @version 2012-11-01
+	 * @version 2026-10-18
 	 *
 	 * @param s The S-Expression in question
+	 * @param env The frame to evaluate the arguments in
 	 * 
 	 * @return T or NIL whether or not the S-Expression is NIL
 	 * 
 	 * @throws Exception If the S-Expression is malformed
 	 *
 	 */
-	public static TreeNode NULL ( SExpression s ) throws Exception{
-		return TreeNode.create(s.data.evaluate().toString().matches("NIL"));
+	public static TreeNode NULL ( SExpression s, Frame env ) throws Exception {
+		return isNull(s.address.evaluate(env));
 	}
 	 
 	/**
@@ -201,15 +238,16 @@ class Primitives{
 	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
 	 * @since 2012-11-01
-	 * @version 2012-11-01
+	 * @version 2026-10-18
 	 * 
 	 * @param s An S-Expression
+	 * @param env The frame to evaluate the arguments in
 	 *
 	 * @return T or NIL whether or not it is an integer
 	 *
 	 */
-	public static TreeNode INT ( SExpression s ) throws Exception{
-		return TreeNode.create(s.address.evaluate(true).toString().matches(Patterns.NUMERIC_ATOM));
+	public static TreeNode INT ( SExpression s, Frame env ) throws Exception {
+		return isInt(s.address.evaluate(true, env));
 	}
 	 
 	/**
@@ -219,17 +257,18 @@ class Primitives{
 	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
 	 * @since 2012-11-01
-	 * @version 2012-11-01
+	 * @version 2026-10-18
 	 *
 	 * @param s S-Expression
+	 * @param env The frame to evaluate the arguments in
 	 * 
 	 * @return The sum of the two elements in the given list (dot-notation form)
 	 * 
 	 * @throws Exception If the S-Expression is malformed
 	 *
 	 */
-	public static TreeNode PLUS ( SExpression s ) throws Exception{
-		return TreeNode.create(Integer.parseInt(s.address.evaluate(true).toString()) + Integer.parseInt(s.data.evaluate(true).toString()));
+	public static TreeNode PLUS ( SExpression s, Frame env ) throws Exception {
+		return plus(s.address.evaluate(true, env), argument(s, 1).evaluate(true, env));
 	}
 
 	/**
@@ -239,17 +278,18 @@ class Primitives{
 	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
 	 * @since 2012-11-01
-	 * @version 2012-11-01
+	 * @version 2026-10-18
 	 *
 	 * @param s S-Expression list in dot-notation
+	 * @param env The frame to evaluate the arguments in
 	 * 
 	 * @return The difference of the two paramenters as an atom
 	 * 
 	 * @throws Exception If the S-Expression is malformed
 	 *
 	 */
-	public static TreeNode MINUS ( SExpression s ) throws Exception{
-		return TreeNode.create(Integer.parseInt(s.address.evaluate(true).toString()) - Integer.parseInt(s.data.evaluate(true).toString()));
+	public static TreeNode MINUS ( SExpression s, Frame env ) throws Exception {
+		return minus(s.address.evaluate(true, env), argument(s, 1).evaluate(true, env));
 	}
 
 	/**
@@ -259,17 +299,18 @@ class Primitives{
 	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
 	 * @since 2012-11-01
-	 * @version 2012-11-01
+	 * @version 2026-10-18
 	 *
 	 * @param s S-Expression
+	 * @param env The frame to evaluate the arguments in
 	 * 
 	 * @return The quotient of the two paramenters given by the S-Expression
 	 * 
 	 * @throws Exception If the S-Expression is malformed
 	 *
 	 */
-	public static TreeNode QUOTIENT ( SExpression s ) throws Exception{
-		return TreeNode.create(Integer.parseInt(s.address.evaluate(true).toString()) / Integer.parseInt(s.data.evaluate(true).toString()));
+	public static TreeNode QUOTIENT ( SExpression s, Frame env ) throws Exception {
+		return quotient(s.address.evaluate(true, env), argument(s, 1).evaluate(true, env));
 	}
 
 	/**
@@ -279,17 +320,18 @@ class Primitives{
 	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
 	 * @since 2012-11-01
-	 * @version 2012-11-01
+	 * @version 2026-10-18
 	 *
 	 * @param s S-Expression
+	 * @param env The frame to evaluate the arguments in
 	 * 
 	 * @return The product of the two parameters as derived from the S-Expression
 	 * 
 	 * @throws Exception If the S-Expression is malformed
 	 *
 	 */
-	public static TreeNode TIMES ( SExpression s ) throws Exception{
-		return TreeNode.create(Integer.parseInt(s.address.evaluate(true).toString()) * Integer.parseInt(s.data.evaluate(true).toString()));
+	public static TreeNode TIMES ( SExpression s, Frame env ) throws Exception {
+		return times(s.address.evaluate(true, env), argument(s, 1).evaluate(true, env));
 	}
 
 	/**
@@ -300,17 +342,18 @@ class Primitives{
 	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
 	 * @since 2012-11-01
-	 * @version 2012-11-01
+	 * @version 2026-10-18
 	 *
 	 * @param s S-Expression
+	 * @param env The frame to evaluate the arguments in
 	 * 
 	 * @return The remainder after division as derived from the S-Expression
 	 * 
 	 * @throws Exception If the S-Expression is malformed
 	 *
 	 */
-	public static TreeNode REMAINDER ( SExpression s ) throws Exception{
-		return TreeNode.create(Integer.parseInt(s.address.evaluate(true).toString()) % Integer.parseInt(s.data.evaluate(true).toString()));
+	public static TreeNode REMAINDER ( SExpression s, Frame env ) throws Exception {
+		return remainder(s.address.evaluate(true, env), argument(s, 1).evaluate(true, env));
 	}
 
 	/**
@@ -320,17 +363,18 @@ class Primitives{
 	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
 	 * @since 2012-11-01
-	 * @version 2012-11-01
+	 * @version 2026-10-18
 	 *
 	 * @param s S-Expression
+	 * @param env The frame to evaluate the arguments in
 	 * 
 	 * @return the boolean answer to the 'less than' operation
 	 * 
 	 * @throws Exception If the S-Expression is malformed
 	 *
 	 */
-	public static TreeNode LESS ( SExpression s ) throws Exception{
-		return TreeNode.create(Integer.parseInt(s.address.evaluate(true).toString()) < Integer.parseInt(s.data.evaluate(true).toString()));
+	public static TreeNode LESS ( SExpression s, Frame env ) throws Exception {
+		return less(s.address.evaluate(true, env), argument(s, 1).evaluate(true, env));
 	}
 	
 	/**
@@ -341,17 +385,18 @@ class Primitives{
 	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
 	 * @since 2012-11-01
-	 * @version 2012-11-01
+	 * @version 2026-10-18
 	 *
 	 * @param s S-Expression
+	 * @param env The frame to evaluate the arguments in
 	 * 
 	 * @return The boolean answer to the 'greater than' operator
 	 * 
 	 * @throws Exception If the S-Expression is malformed
 	 *
 	 */
-	public static TreeNode GREATER ( SExpression s ) throws Exception{
-		return TreeNode.create(Integer.parseInt(s.address.evaluate(true).toString()) > Integer.parseInt(s.data.evaluate(true).toString()));
+	public static TreeNode GREATER ( SExpression s, Frame env ) throws Exception {
+		return greater(s.address.evaluate(true, env), argument(s, 1).evaluate(true, env));
 	}
 	 
 	/**
@@ -361,30 +406,29 @@ class Primitives{
 	 * which represents a list of conditions. It evaluates them until
 	 * one's CAR evaluates to T and then returns the second item.
 	 * 
-	 * This roughly approximates the evcon function in the operational semantics
-	 * where the error condition is taken care of by the SExpression 
-	 * constructor.
+	 * This roughly approximates the evcon function in the operational semantics,
+	 * raising an error if none of the conditions hold.
 	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
 	 * @since 2012-11-01
-	 * @version 2012-11-01
+	 * @version 2026-10-18
 	 *
 	 * @param s The S-Expression describing the conditions
+	 * @param env The frame to evaluate the arguments in
 	 * 
 	 * @return The result of evaluating the expression in the list with the first boolean component
 	 * 
 	 * @throws Exception If the S-Expression is malformed
 	 *
 	 */
-	public static TreeNode COND ( SExpression s ) throws Exception {
-		SExpression a = new SExpression(s.addressTokens);
-		if ( a.address.evaluate().toString().matches("T") ){
-			SExpression tmp = new SExpression(a.dataTokens);
-			return tmp.address.evaluate(true);
-		} else {
-			SExpression b = new SExpression(s.dataTokens);
-			return COND(b);
+	public static TreeNode COND ( SExpression s, Frame env ) throws Exception {
+		for ( TreeNode t = s; t instanceof SExpression; t = ((SExpression) t).data ){
+			SExpression clause = pair(((SExpression) t).address);
+			if ( clause.address.evaluate(env) == Atom.T ){
+				return argument(clause, 1).evaluate(true, env);
+			}
 		}
+		throw new Exception("Error! No condition in COND was true.");
 	}
 	 
 	/**
@@ -398,18 +442,160 @@ class Primitives{
 	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
 	 * @since 2012-11-01
-	 * @version 2012-11-01
+	 * @version 2026-10-18
 	 *
 	 * @param s S-Expression
+	 * @param env The current frame. Not used.
 	 * 
 	 * @return The address of s
 	 * 
 	 * @throws Exception If the S-Expression is malformed
 	 *
 	 */
-	public static TreeNode QUOTE ( SExpression s ) throws Exception {
+	public static TreeNode QUOTE ( SExpression s, Frame env ) throws Exception {
 		return s.address;
 	}
+
+	/**
+	 * Function: DELAY
+	 * 
+	 * Makes a promise to evaluate the (unevaluated) argument in the
+	 * current frame when it is forced
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param s S-Expression whose CAR is the form to delay
+	 * @param env The frame the promise evaluates the form in
+	 * 
+	 * @return The promise
+	 * 
+	 * @throws Exception If the S-Expression is malformed
+	 *
+	 */
+	public static TreeNode DELAY ( SExpression s, Frame env ) throws Exception {
+		return new Promise(s.address, env);
+	}
+
+	/**
+	 * Function: FORCE
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param s The SExpression arguments in dot-notation
+	 * @param env The frame to evaluate the argument in
+	 * 
+	 * @return The value of the promise the argument evaluates to, or the
+	 *         argument's value itself if that is not a promise
+	 * 
+	 * @throws Exception If the evaluation of the argument or of the promise fails
+	 *
+	 */
+	public static TreeNode FORCE ( SExpression s, Frame env ) throws Exception {
+		return force(s.address.evaluate(env));
+	}
+
+	/**
+	 * Function: SCONS
+	 * 
+	 * The lazy CONS of a stream: the first argument is evaluated, and the
+	 * second is delayed, so the pair is (CAR . promise of the rest)
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param s The SExpression arguments in dot-notation
+	 * @param env The frame to evaluate the arguments in
+	 * 
+	 * @return The pair
+	 * 
+	 * @throws Exception if the arguments are inappropriate
+	 *
+	 */
+	public static TreeNode SCONS ( SExpression s, Frame env ) throws Exception {
+		return cons(s.address.evaluate(env), new Promise(argument(s, 1), env));
+	}
+
+	/**
+	 * Function: SCDR
+	 * 
+	 * The rest of a stream: the CDR of the argument, forced
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param s The SExpression arguments in dot-notation
+	 * @param env The frame to evaluate the argument in
+	 * 
+	 * @return The forced CDR of the argument
+	 * 
+	 * @throws Exception If the argument is not a pair or forcing fails
+	 *
+	 */
+	public static TreeNode SCDR ( SExpression s, Frame env ) throws Exception {
+		return force(cdr(s.address.evaluate(env)));
+	}
+
+	/**
+	 * Function: PCALL
+	 * 
+	 * Calls the function named (unevaluated) by the first argument, a
+	 * user-defined function or a primitive which evaluates its arguments,
+	 * with the values of the rest, which are evaluated in parallel
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param s S-Expression whose CAR names the function and whose CDR
+	 *          is the list of actual parameters
+	 * @param env The frame to evaluate the actual parameters in
+	 * 
+	 * @return The value of the call
+	 * 
+	 * @throws Exception If the function is undefined or a special form,
+	 *                   or evaluating an actual parameter or the call fails
+	 *
+	 * @see Parallel
+	 */
+	public static TreeNode PCALL ( SExpression s, Frame env ) throws Exception {
+		String name = s.address.toString();
+		Vector <TreeNode> forms = new Vector <TreeNode> ();
+		TreeNode t = s.data;
+		for ( ; t instanceof SExpression; t = ((SExpression) t).data ){
+			forms.add(((SExpression) t).address);
+		}
+		if ( t != Atom.NIL ){
+			throw new Exception("Error! Invalid parameters to function: " + name);
+		}
+
+		UserFunction f = env == null ? null : env.environment.getFunction(name);
+		Primitive p = lookup(s.address.symbol());
+		if ( f == null && p == null ){
+			throw new Exception("Error! Undefined function: " + name);
+		} else if ( f == null && SPECIAL.contains(name) ){
+			throw new Exception("Error! Cannot PCALL a special form: " + name);
+		}
+		TreeNode[] values = Parallel.evaluate(forms.toArray(new TreeNode[forms.size()]), env);
+		if ( f != null ){
+			return f.invoke(values);
+		} else if ( values.length == 0 ){
+			throw new Exception("Error! Missing arguments to: " + name);
+		}
+
+		// A primitive takes its arguments unevaluated, so hand it the values quoted
+		Atom quote = Atom.symbol("QUOTE");
+		TreeNode args = Atom.NIL;
+		for ( int i = values.length - 1; i >= 0; i-- ){
+			args = new SExpression(new SExpression(quote, new SExpression(values[i], Atom.NIL)), args);
+		}
+		return p.apply((SExpression) args, env);
+	}
 	 
 	/**
 	 * Function: DEFUN
@@ -421,16 +607,129 @@ class Primitives{
 	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
 	 * @since 2012-11-01
-	 * @version 2012-11-01
+	 * @version 2026-10-18
 	 *
 	 * @param s S-Expression containing all the necessary information
+	 * @param env The current frame, whose environment the function is defined in
 	 * 
 	 * @return An Atom of the function name if the registration is successful
 	 * 
 	 * @throws Exception If the S-Expression is malformed
 	 *
 	 */
-	public static TreeNode DEFUN (SExpression s) throws Exception {
+	public static TreeNode DEFUN ( SExpression s, Frame env ) throws Exception {
+		return define(s, env, false);
+	}
+
+	/**
+	 * Function: DEFMEMO
+	 * 
+	 * Defines a function just as DEFUN does, but memoized: its results
+	 * are remembered, by the structure of its actual parameters, in a
+	 * cache of at most lisp.memo.size entries (10000 unless given). This
+	 * is only sound for functions which always give the same result for
+	 * the same arguments, which is every function in this Lisp.
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param s S-Expression containing the name, parameters and body
+	 * @param env The current frame, whose environment the function is defined in
+	 * 
+	 * @return An Atom of the function name if the registration is successful
+	 * 
+	 * @throws Exception If the S-Expression is malformed
+	 *
+	 */
+	public static TreeNode DEFMEMO ( SExpression s, Frame env ) throws Exception {
+		return define(s, env, true);
+	}
+
+	/**
+	 * Function: MEMOSTATS
+	 * 
+	 * Reports on the cache of a memoized function, named (unevaluated)
+	 * by the argument, as the list (HITS MISSES EVICTIONS SIZE)
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param s S-Expression whose CAR names the function
+	 * @param env The current frame, whose environment the function is looked up in
+	 * 
+	 * @return The counts of hits, misses and evictions, and the number of entries cached
+	 * 
+	 * @throws Exception If there is no memoized function of that name
+	 *
+	 */
+	public static TreeNode MEMOSTATS ( SExpression s, Frame env ) throws Exception {
+		String name = s.address.toString();
+		UserFunction f = env.environment.getFunction(name);
+		if ( f == null || f.memo == null ){
+			throw new Exception("Error! Not a memoized function: " + name);
+		}
+		long[] counts = f.memo.statistics();
+		TreeNode list = Atom.NIL;
+		for ( int i = counts.length - 1; i >= 0; i-- ){
+			list = new SExpression(Atom.fixnum(counts[i]), list);
+		}
+		return list;
+	}
+
+	/**
+	 * Function: FOLDSTATS
+	 * 
+	 * Reports how much constant folding took out of the body of the
+	 * function named (unevaluated) by the argument, as the list
+	 * (NODES ELIMINATED), or, if the argument is T, of every function
+	 * body and top-level statement so far
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param s S-Expression whose CAR names the function, or is T
+	 * @param env The current frame, whose environment the function is looked up in
+	 * 
+	 * @return The number of nodes as written and the number eliminated
+	 * 
+	 * @throws Exception If there is no function of that name
+	 *
+	 */
+	public static TreeNode FOLDSTATS ( SExpression s, Frame env ) throws Exception {
+		long[] counts;
+		if ( s.address == Atom.T ){
+			counts = env.environment.foldStatistics();
+		} else {
+			String name = s.address.toString();
+			UserFunction f = env.environment.getFunction(name);
+			if ( f == null ){
+				throw new Exception("Error! Undefined function: " + name);
+			}
+			counts = new long[] { f.nodes, f.eliminated };
+		}
+		return new SExpression(Atom.fixnum(counts[0]), new SExpression(Atom.fixnum(counts[1]), Atom.NIL));
+	}
+
+	/**
+	 * Function: define
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param s S-Expression containing the name, parameters and body
+	 * @param env The current frame, whose environment the function is defined in
+	 * @param memoized Whether the function remembers its results
+	 * 
+	 * @return An Atom of the function name if the registration is successful
+	 * 
+	 * @throws Exception If the S-Expression is malformed
+	 *
+	 */
+	private static TreeNode define ( SExpression s, Frame env, boolean memoized ) throws Exception {
 		String name = s.address.toString();
 
 		if ( ! name.matches(Patterns.VALID_FUNCTION_NAME) ){
@@ -441,24 +740,524 @@ class Primitives{
 			throw new Exception("Error! Cannot override a primitive function.");
 		}
 
-		SExpression d = new SExpression(s.dataTokens);
-		TreeNode params = TreeNode.create(d.addressTokens);
-		SExpression tmp = new SExpression(d.dataTokens);
-		TreeNode body = TreeNode.create(tmp.addressTokens);
+		TreeNode params = argument(s, 1);
+		TreeNode body = argument(s, 2);
 
-		Environment.registerFunction(name, params, body);
+		env.environment.registerFunction(name, params, body, memoized);
 
-		return new Atom(name);
+		return Atom.symbol(name);
+	}
+
+	/**
+	 * Function: cons
+	 * 
+	 * The value of CONS, once its arguments are evaluated
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param x The evaluated first argument
+	 * @param y The evaluated second argument
+	 * 
+	 * @return A new cons cell of the two
+	 *
+	 */
+	public static TreeNode cons(TreeNode x, TreeNode y){
+		return new SExpression(x, y);
+	}
+
+	/**
+	 * Function: car
+	 * 
+	 * The value of CAR, once its argument is evaluated
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param x The evaluated argument
+	 * 
+	 * @return The address of the argument
+	 * 
+	 * @throws Exception If the argument is an Atom
+	 *
+	 */
+	public static TreeNode car(TreeNode x) throws Exception{
+		return pair(x).address;
+	}
+
+	/**
+	 * Function: cdr
+	 * 
+	 * The value of CDR, once its argument is evaluated
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param x The evaluated argument
+	 * 
+	 * @return The data of the argument
+	 * 
+	 * @throws Exception If the argument is an Atom
+	 *
+	 */
+	public static TreeNode cdr(TreeNode x) throws Exception{
+		return pair(x).data;
+	}
+
+	/**
+	 * Function: force
+	 * 
+	 * The value of FORCE, once its argument is evaluated
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param x The evaluated argument
+	 * 
+	 * @return The value of the argument if it is a promise, or else the argument
+	 * 
+	 * @throws Exception If forcing the promise fails
+	 *
+	 */
+	public static TreeNode force(TreeNode x) throws Exception{
+		return x instanceof Promise ? ((Promise) x).force() : x;
+	}
+
+	/**
+	 * Function: atom
+	 * 
+	 * The value of ATOM, once its argument is evaluated
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param x The evaluated argument
+	 * 
+	 * @return T if the argument is not an S-Expression
+	 *
+	 */
+	public static TreeNode atom(TreeNode x){
+		return TreeNode.create(!(x instanceof SExpression));
+	}
+
+	/**
+	 * Function: eq
+	 * 
+	 * The value of EQ, once its arguments are evaluated. Numbers are
+	 * compared by value and anything else by identity.
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param x The evaluated first argument
+	 * @param y The evaluated second argument
+	 * 
+	 * @return T if the two are the same
+	 * 
+	 * @throws Exception If a comparison of numbers fails
+	 *
+	 */
+	public static TreeNode eq(TreeNode x, TreeNode y) throws Exception{
+		if ( x instanceof Atom && ((Atom) x).isNumber() ){
+			return TreeNode.create(y instanceof Atom && ((Atom) y).isNumber() && compare((Atom) x, (Atom) y) == 0);
+		}
+		return TreeNode.create(x == y);
+	}
+
+	/**
+	 * Function: isNull
+	 * 
+	 * The value of NULL, once its argument is evaluated
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param x The evaluated argument
+	 * 
+	 * @return T if the argument is NIL
+	 *
+	 */
+	public static TreeNode isNull(TreeNode x){
+		return TreeNode.create(x == Atom.NIL);
+	}
+
+	/**
+	 * Function: isInt
+	 * 
+	 * The value of INT, once its argument is evaluated
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param x The evaluated argument
+	 * 
+	 * @return T if the argument is a number
+	 *
+	 */
+	public static TreeNode isInt(TreeNode x){
+		return TreeNode.create(x instanceof Atom && ((Atom) x).isNumber());
+	}
+
+	/**
+	 * Function: plus
+	 * 
+	 * The value of PLUS, once its arguments are evaluated
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param x The evaluated first argument
+	 * @param y The evaluated second argument
+	 * 
+	 * @return The sum
+	 * 
+	 * @throws Exception If either argument is not a number
+	 *
+	 */
+	public static TreeNode plus(TreeNode x, TreeNode y) throws Exception{
+		Atom a = number(x);
+		Atom b = number(y);
+		if ( a.isFixnum() && b.isFixnum() ){
+			try {
+				return Atom.fixnum(Math.addExact(a.longValue(), b.longValue()));
+			} catch (ArithmeticException e){
+				// Overflowed a long, so do it again as a bignum
+			}
+		}
+		return Atom.number(a.bigValue().add(b.bigValue()));
+	}
+
+	/**
+	 * Function: minus
+	 * 
+	 * The value of MINUS, once its arguments are evaluated
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param x The evaluated first argument
+	 * @param y The evaluated second argument
+	 * 
+	 * @return The difference
+	 * 
+	 * @throws Exception If either argument is not a number
+	 *
+	 */
+	public static TreeNode minus(TreeNode x, TreeNode y) throws Exception{
+		Atom a = number(x);
+		Atom b = number(y);
+		if ( a.isFixnum() && b.isFixnum() ){
+			try {
+				return Atom.fixnum(Math.subtractExact(a.longValue(), b.longValue()));
+			} catch (ArithmeticException e){
+				// Overflowed a long, so do it again as a bignum
+			}
+		}
+		return Atom.number(a.bigValue().subtract(b.bigValue()));
+	}
+
+	/**
+	 * Function: times
+	 * 
+	 * The value of TIMES, once its arguments are evaluated
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param x The evaluated first argument
+	 * @param y The evaluated second argument
+	 * 
+	 * @return The product
+	 * 
+	 * @throws Exception If either argument is not a number
+	 *
+	 */
+	public static TreeNode times(TreeNode x, TreeNode y) throws Exception{
+		Atom a = number(x);
+		Atom b = number(y);
+		if ( a.isFixnum() && b.isFixnum() ){
+			try {
+				return Atom.fixnum(Math.multiplyExact(a.longValue(), b.longValue()));
+			} catch (ArithmeticException e){
+				// Overflowed a long, so do it again as a bignum
+			}
+		}
+		return Atom.number(a.bigValue().multiply(b.bigValue()));
+	}
+
+	/**
+	 * Function: quotient
+	 * 
+	 * The value of QUOTIENT, once its arguments are evaluated
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param x The evaluated first argument
+	 * @param y The evaluated second argument
+	 * 
+	 * @return The quotient
+	 * 
+	 * @throws Exception If either argument is not a number
+	 *
+	 */
+	public static TreeNode quotient(TreeNode x, TreeNode y) throws Exception{
+		Atom a = number(x);
+		Atom b = number(y);
+		if ( b.isFixnum() && b.longValue() == 0 ){
+			throw new Exception("Error! Division by zero.");
+		}
+		// The one quotient of two longs which is not a long is MIN_VALUE / -1
+		if ( a.isFixnum() && b.isFixnum() && !( a.longValue() == Long.MIN_VALUE && b.longValue() == -1 ) ){
+			return Atom.fixnum(a.longValue() / b.longValue());
+		}
+		return Atom.number(a.bigValue().divide(b.bigValue()));
+	}
+
+	/**
+	 * Function: remainder
+	 * 
+	 * The value of REMAINDER, once its arguments are evaluated
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param x The evaluated first argument
+	 * @param y The evaluated second argument
+	 * 
+	 * @return The remainder
+	 * 
+	 * @throws Exception If either argument is not a number
+	 *
+	 */
+	public static TreeNode remainder(TreeNode x, TreeNode y) throws Exception{
+		Atom a = number(x);
+		Atom b = number(y);
+		if ( b.isFixnum() && b.longValue() == 0 ){
+			throw new Exception("Error! Division by zero.");
+		}
+		if ( a.isFixnum() && b.isFixnum() ){
+			return Atom.fixnum(a.longValue() % b.longValue());
+		}
+		return Atom.number(a.bigValue().remainder(b.bigValue()));
+	}
+
+	/**
+	 * Function: less
+	 * 
+	 * The value of LESS, once its arguments are evaluated
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param x The evaluated first argument
+	 * @param y The evaluated second argument
+	 * 
+	 * @return T if the first is less than the second
+	 * 
+	 * @throws Exception If either argument is not a number
+	 *
+	 */
+	public static TreeNode less(TreeNode x, TreeNode y) throws Exception{
+		Atom a = number(x);
+		Atom b = number(y);
+		return TreeNode.create(compare(a, b) < 0);
+	}
+
+	/**
+	 * Function: greater
+	 * 
+	 * The value of GREATER, once its arguments are evaluated
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param x The evaluated first argument
+	 * @param y The evaluated second argument
+	 * 
+	 * @return T if the first is greater than the second
+	 * 
+	 * @throws Exception If either argument is not a number
+	 *
+	 */
+	public static TreeNode greater(TreeNode x, TreeNode y) throws Exception{
+		Atom a = number(x);
+		Atom b = number(y);
+		return TreeNode.create(compare(a, b) > 0);
+	}
+
+	/**
+	 * Function: argument
+	 * 
+	 * Walks down an argument list to one of its (unevaluated) elements
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param s The argument list in dot-notation
+	 * @param n The index of the argument, counting from zero
+	 * 
+	 * @return The n-th element of the list
+	 * 
+	 * @throws Exception If the list is too short
+	 *
+	 */
+	private static TreeNode argument(SExpression s, int n) throws Exception{
+		TreeNode t = s;
+		for ( int i = 0; i < n && t instanceof SExpression; i++ ){
+			t = ((SExpression) t).data;
+		}
+		if ( !(t instanceof SExpression) ){
+			throw new Exception("Error! Too few arguments.");
+		}
+		return ((SExpression) t).address;
+	}
+
+	/**
+	 * Function: number
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param t An evaluated argument
+	 * 
+	 * @return The argument as a numeric Atom
+	 * 
+	 * @throws Exception If the argument is not a number
+	 *
+	 */
+	private static Atom number(TreeNode t) throws Exception{
+		if ( !(t instanceof Atom) || !((Atom) t).isNumber() ){
+			throw new Exception("Error! Not a number: " + t.toString());
+		}
+		return (Atom) t;
+	}
+
+	/**
+	 * Function: compare
+	 * 
+	 * Compares two numbers, without leaving longs unless one of them
+	 * is a bignum
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param a A numeric Atom
+	 * @param b A numeric Atom
+	 * 
+	 * @return Less than, equal to or greater than zero as a is less than, equal to or greater than b
+	 * 
+	 * @throws Exception If either is not a number
+	 *
+	 */
+	private static int compare(Atom a, Atom b) throws Exception{
+		if ( a.isFixnum() && b.isFixnum() ){
+			return Long.compare(a.longValue(), b.longValue());
+		}
+		return a.bigValue().compareTo(b.bigValue());
+	}
+
+	/**
+	 * Function: pair
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param t A node which ought to be an S-Expression
+	 * 
+	 * @return The node as an S-Expression
+	 * 
+	 * @throws Exception If the node is an Atom
+	 *
+	 */
+	private static SExpression pair(TreeNode t) throws Exception{
+		if ( !(t instanceof SExpression) ){
+			throw new Exception("Error! Not an S-Expression: " + t.toString());
+		}
+		return (SExpression) t;
+	}
+
+	/**
+	 * Function: register
+	 * 
+	 * Enters a primitive into the dispatch table under the id of its
+	 * interned name. This only happens once, when the class is loaded.
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param name The name of the primitive
+	 * @param p The primitive function
+	 *
+	 */
+	private static void register(String name, Primitive p){
+		int id = Symbols.intern(name);
+		if ( id >= table.length ){
+			table = Arrays.copyOf(table, id + 1);
+		}
+		table[id] = p;
+	}
+
+	/**
+	 * Function: lookup
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param symbol The symbol id of a name, or -1 for something which is not a symbol
+	 * 
+	 * @return The primitive of that name, or null if there is none
+	 *
+	 */
+	static Primitive lookup(int symbol){
+		return symbol >= 0 && symbol < table.length ? table[symbol] : null;
+	}
+
+	/**
+	 * Function: isPrimitive
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param symbol The symbol id of a name
+	 * 
+	 * @return True if a primitive is registered under that name
+	 *
+	 */
+	public static boolean isPrimitive(int symbol){
+		return lookup(symbol) != null;
 	}
 
 	/**
 	 * Function: primitiveExists
 	 * 
-	 * This uses reflection to check if a particular primitive is defined.
+	 * This checks the dispatch table to see if a particular primitive is defined.
 	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
 	 * @since 2012-11-01
-	 * @version 2012-11-01
+	 * @version 2026-10-18
 	 *
 	 * @param name The name of the primitive in question
 	 * 
@@ -466,12 +1265,6 @@ class Primitives{
 	 *
 	 */
 	private static boolean primitiveExists(String name){
-		java.lang.reflect.Method m;
-		try{
-			m = Primitives.class.getDeclaredMethod(name, SExpression.class);
-			return true;
-		} catch (Exception e){
-			return false;
-		}
+		return lookup(Symbols.intern(name)) != null;
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,78 @@
+package parser;
+
+/**
+ * File: Promise.java
+ *
+ * A delayed evaluation, as made by DELAY and by the second argument of
+ * SCONS: the form and the frame it was written in, which is the frame
+ * of the call making the promise rather than any table of bindings.
+ * Nothing is evaluated until the promise is forced; the value is then
+ * remembered, and the form and frame let go, so forcing it again costs
+ * nothing and a stream which has been walked past can be collected.
+ *
+ * A promise evaluates to itself, like an atom.
+ *
+ * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+ * @since 2026-10-18
+ * @version 2026-10-18
+ *
+ * @see Primitives
+ */
+
+public final class Promise extends TreeNode{
+	private TreeNode form;
+	private Frame env;
+	private TreeNode value = null;
+
+	/**
+	 * Function: Promise
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param f The form to evaluate when forced
+	 * @param e The frame to evaluate it in
+	 */
+	Promise(TreeNode f, Frame e){
+		form = f;
+		env = e;
+	}
+
+	/**
+	 * Function: force
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @return The value of the form, evaluated the first time only
+	 *
+	 * @throws Exception If evaluating the form fails; it is tried again
+	 *                   the next time the promise is forced
+	 */
+	public synchronized TreeNode force() throws Exception{
+		if ( form != null ){
+			TreeNode v = form.evaluate(env);
+			// Forcing the promise again while evaluating it may already have settled it
+			if ( form != null ){
+				value = v;
+				form = null;
+				env = null;
+			}
+		}
+		return value;
+	}
+
+	protected boolean isList(){
+		return false;
+	}
+
+	public TreeNode evaluate(boolean flag, Frame env){
+		return this;
+	}
+
+	public String toString(){
+		return "#<PROMISE>";
+	}
+}
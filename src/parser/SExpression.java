@@ -1,16 +1,15 @@
 package parser;
 
-import java.util.Vector;
-import java.util.Hashtable;
-import helpers.*;
-import java.lang.reflect.*;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 
 /**
  * File: SExpression.java
  * 
  * This file is the class which represents S-Expressions in the
- * interpreter. It handles evaluation and construction from various
- * kinds of input. It is also what controls whether or not the
+ * interpreter. An S-Expression is a single cons cell holding only
+ * references to its address (CAR) and data (CDR). It handles
+ * evaluation, and it is also what controls whether or not the
  * output is returned in list notation or dot notation.
  * 
  * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
@@ -19,57 +18,9 @@ import java.lang.reflect.*;
  *
  */
 
-class SExpression extends TreeNode{
+public class SExpression extends TreeNode{
 	protected TreeNode address;
 	protected TreeNode data;
-	protected Vector <String> dataTokens;
-	protected Vector <String> addressTokens;
-
-	/**
-	 * Function: SExpression
-	 * 
-	 * Constructor: SExpression(Vector <String> s)
-	 * 
-	 * This is the constructor that creates an S-Expression from a
-	 * vector string. It calls conshelper to make sure input is 
-	 * valid and actually does the creation.
-	 * 
-	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
-	 * @since 2012-11-01
-	 * @version 2012-11-01
-	 *
-	 * @param s A string vector
-	 * 
-	 * @throws Exception If the input is not representative of an S-Expression
-	 * 
-	 * @see Parser.SExpression.consHelper
-	 *
-	 */
-	public SExpression(Vector <String> s) throws Exception{
-		consHelper(s);
-	}
-
-	/**
-	 * Function: SExpression
-	 * 
-	 * Constructor: SExpression(TreeNode t)
-	 * 
-	 * This function creast
-	 * 
-	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
-	 * @since 2012-11-01
-	 * @version 2012-11-01
-	 *
-	 * @param t A treenode to be "cast" to an S-Expression
-	 * 
-	 * @throws Exception If the Treenode is not suitable
-	 * 
-	 * @see Parser.SExpression.consHelper
-	 *
-	 */
-	public SExpression(TreeNode t) throws Exception{
-		consHelper(t.tokens);
-	}
 
 	/**
 	 * Function: SExpression
@@ -77,12 +28,12 @@ class SExpression extends TreeNode{
 	 * Constructor: SExpression(TreeNode a, Treenode d)
 	 * 
 	 * This function takes two TreeNodes and puts one in the 
-	 * address field and the other in the data field and updates
-	 * the tokens accordingly
+	 * address field and the other in the data field. Nothing
+	 * else is kept, so a cons cell is just its two references.
 	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
 	 * @since 2012-11-01
-	 * @version 2012-11-01
+	 * @version 2026-10-18
 	 *
 	 * @param a The address-to-be TreeNode
 	 * @param d The data-to-be TreeNode
@@ -91,86 +42,34 @@ class SExpression extends TreeNode{
 	public SExpression(TreeNode a, TreeNode d){
 		address = a;
 		data = d;
-		dataTokens = d.tokens;
-		addressTokens = a.tokens;
-		tokens = new Vector <String> ();
-		tokens.add("(");
-		tokens.addAll(a.tokens);
-		tokens.add(".");
-		tokens.addAll(d.tokens);
-		tokens.add(")");
 	}
 
 	/**
-	 * Function: SExpression
-	 * 
-	 * Constructor: SExpression(SExpression s)
-	 * 
-	 * This is essentially a deep-copy constructor
+	 * Function: car
 	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
-	 * @since 2012-11-02
-	 * @version 2012-11-02
+	 * @since 2026-10-18
+	 * @version 2026-10-18
 	 *
-	 * @param s The to-be-copied S-Expression
-	 * 
-	 * @throws Exception If any of the sub-expressions are unsuitable or malformed
+	 * @return The address (CAR) of the cell
 	 *
 	 */
-	public SExpression(SExpression s) throws Exception{
-		data = TreeNode.create(s.dataTokens);
-		address = TreeNode.create(s.addressTokens);
-		dataTokens = new Vector <String> (s.dataTokens);
-		addressTokens = new Vector <String> (s.addressTokens);
+	public TreeNode car(){
+		return address;
 	}
 
 	/**
-	 * Function: consHelper
-	 * 
-	 * This is a magic function to take a string vector, make sure it is a
-	 * suitable suitable representation of an S-Expression, and calculate
-	 * which parts are the address and which is the data.  It appropriately
-	 * udpates the tokens as well.
+	 * Function: cdr
 	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
-	 * @since 2012-11-02
-	 * @version 2012-11-02
+	 * @since 2026-10-18
+	 * @version 2026-10-18
 	 *
-	 * @param s The string vector to fit into an S-Expression
-	 * 
-	 * @throws Exception If the vector is not fit for an S-Expression (i.e. does not begin with '(' )
+	 * @return The data (CDR) of the cell
 	 *
 	 */
-	private void consHelper(Vector <String> s) throws Exception{
-		if ( s.size() > 0 && s.get(0).matches("[(]") ){ // some sanity checking for now
-			int i = 1;
-			int dataStart = 3;
-			if ( s.get(i) == "(" ){
-				int open = 1;
-				while ( open > 0 && i < s.size() ){
-					i++;
-					if ( s.get(i) == "(" ){
-						open++;
-					} else if ( s.get(i) == ")" ){
-						open--;
-					}
-				}
-				dataStart = i + 1;
-			}
-			i = dataStart > 3 ? s.indexOf(".", dataStart) : 2;
-			addressTokens = new Vector <String>(s.subList(1,i));
-			address = TreeNode.create(addressTokens);
-			dataTokens = new Vector <String>(s.subList(i+1, s.size() - 1));
-			data = TreeNode.create(dataTokens);
-			tokens = new Vector <String> ();
-			tokens.add("(");
-			tokens.addAll(addressTokens);
-			tokens.add(".");
-			tokens.addAll(dataTokens);
-			tokens.add(")");
-		} else {
-			throw new Exception("Error! Invalid S-Expression: " + s.toString());
-		}
+	public TreeNode cdr(){
+		return data;
 	}
 
 	/**
@@ -182,157 +81,84 @@ class SExpression extends TreeNode{
 	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
 	 * @since 2012-11-01
-	 * @version 2012-11-01
+	 * @version 2026-10-18
 	 * 
 	 * @return True or False depending on if it is a list
 	 *
 	 */
 	protected boolean isList(){
-		return data.toString().matches("NIL") || data.isList();
+		TreeNode t = data;
+		while ( t instanceof SExpression ){
+			t = ((SExpression) t).data;
+		}
+		return t == Atom.NIL;
 	}
 	
 	/**
 	 * Function: toString
 	 * 
-	 * Provides the basic toString functionality. It initially tries
-	 * to print it as a list but if it cannot be converted to list notation
-	 * it uses standard dot notation.
+	 * Provides the basic toString functionality. Lists are printed
+	 * in list notation and anything else in standard dot notation.
 	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
 	 * @since 2012-11-02
-	 * @version 2012-11-02
+	 * @version 2026-10-18
 	 *
 	 * @return The dot- or list-notation of the S-Expression
 	 *
 	 */
 	public String toString(){
-		if ( isList() ){
-			try {
-				return toListString();
-			} catch (Exception e){
-				return "(" + address.toString() + " . " + data.toString() + ")";
-			}
-		} else {
-			return "(" + address.toString() + " . " + data.toString() + ")";
-		}
+		StringBuilder b = new StringBuilder();
+		print(this, b);
+		return b.toString();
 	}
 
 	/**
-	 * Function: toListString
+	 * Function: print
 	 * 
-	 * Outputs the SExpression data as a list using the prescribed
-	 * notation.
+	 * Walks the structure of a node and writes out its printed form.
+	 * Rather than recursing, the pieces still to be written are kept on
+	 * an explicit stack (either a node or a literal bit of punctuation),
+	 * so arbitrarily deep structures can be printed.
 	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
-	 * @since 2012-11-02
-	 * @version 2012-11-02
+	 * @since 2026-10-18
+	 * @version 2026-10-18
 	 *
-	 * @return The String representing the list-notation of the S-Expression
+	 * @param root The node to print
+	 * @param b Where to write the printed form
 	 *
 	 */
-	protected String toListString() throws Exception{
-		return "(" + StringHelpers.join(toVector(), " ") + ")";
-	}
-
-	/**
-	 * Function: toVector
-	 * 
-	 * This function converts the string data to a vector suitable
-	 * for conversion to list notation.
-	 * 
-	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
-	 * @since 2012-11-02
-	 * @version 2012-11-02
-	 *
-	 * @return The String vector of the S-Expression
-	 * 
-	 * @throws Exception if the SExpression is not able to be converted
-	 *
-	 */
-	private Vector <String> toVector() throws Exception{
-		if ( ! isList() ){
-			throw new Exception("Error!");
-		}
-		Vector <String> v = new Vector <String> ();
-		SExpression tmp = this;
-		while ( tmp.isList() ){
-			v.add(tmp.address.toString());
-			try { 
-				tmp = new SExpression(tmp.dataTokens);
-			} catch (Exception e){
-				break;
+	private static void print(TreeNode root, StringBuilder b){
+		ArrayDeque <Object> work = new ArrayDeque <Object> ();
+		work.push(root);
+		while ( !work.isEmpty() ){
+			Object o = work.pop();
+			if ( o instanceof String ){
+				b.append((String) o);
+			} else if ( !(o instanceof SExpression) ){
+				b.append(o.toString());
+			} else {
+				SExpression s = (SExpression) o;
+				b.append("(");
+				work.push(")");
+				if ( s.isList() ){
+					ArrayList <TreeNode> elements = new ArrayList <TreeNode> ();
+					for ( TreeNode t = s; t instanceof SExpression; t = ((SExpression) t).data ){
+						elements.add(((SExpression) t).address);
+					}
+					for ( int i = elements.size() - 1; i > 0; i-- ){
+						work.push(elements.get(i));
+						work.push(" ");
+					}
+					work.push(elements.get(0));
+				} else {
+					work.push(s.data);
+					work.push(" . ");
+					work.push(s.address);
+				}
 			}
 		}
-		return v;
-	}
-
-	/**
-	 * Function: evaluate
-	 * 
-	 * This is a connector function to the main evaluation procedure.
-	 * It takes not arguments and just passes a default value to the main
-	 * subroutine.
-	 * 
-	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
-	 * @since 2012-11-02
-	 * @version 2012-11-02
-	 *
-	 * @return The result of evaluation of the SExpression
-	 * 
-	 * @throws Exception If evaluation fails
-	 * 
-	 * @see evaluate
-	 *
-	 */
-	protected TreeNode evaluate() throws Exception{
-		return this.evaluate(false);
-	}
-
-	/**
-	 * Function: evaluate
-	 * 
-	 * This function allows invoking of the main evaluation routine
-	 * without specifying the flag. It passes a default value and the
-	 * given environment varables.
-	 * 
-	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
-	 * @since 2012-11-02
-	 * @version 2012-11-02
-	 *
-	 * @param env A Hashtable of the variables to be considered during evaluation
-	 * 
-	 * @see evaluate
-	 *
-	 */
-	protected TreeNode evaluate(Hashtable <String, TreeNode> env) throws Exception{
-		return evaluate(false, env);
-	}
-	
-	/**
-	 * Function: evaluate
-	 * 
-	 * Provides an interface to accept both the flag and environment varaibles
-	 * as arguments. This swaps in the current scope variables and when finished,
-	 * 'pops' them back out.
-	 * 
-	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
-	 * @since 2012-11-02
-	 * @version 2012-11-02
-	 *
-	 * @param flag Whether or not to take numericals literally
-	 * @param env Variable bindings to use
-	 * 
-	 * @return The result of evaluation
-	 * 
-	 * @see evaluate
-	 *
-	 */
-	protected TreeNode evaluate(boolean flag, Hashtable <String, TreeNode> env) throws Exception{	
-		Hashtable <String, TreeNode> oldVars = Environment.getVarTable();
-		Environment.mergeVars(env);
-		TreeNode rtn = evaluate(flag);
-		Environment.setVars(oldVars);
-		return rtn;
 	}
 
 	/**
@@ -343,131 +169,57 @@ class SExpression extends TreeNode{
 	 * items literally. That should only happen when they are arguments
 	 * to a primitive or user-defined function.
 	 * 
-	 * This function uses reflection on the Primitives object to find the
-	 * appropriate primitive function to run. It also first searches the
-	 * defined functions and variables for bound values.  If none are set,
-	 * it uses the string name of the function call to find the appropriate
-	 * primitive function. Using reflection, that primitive is invoked with
+	 * This function first searches the defined functions for a binding
+	 * of the function name, through the inline cache carried by the atom
+	 * naming it, so that as long as no function is defined in between,
+	 * finding it again involves no hashing.  If none is set, it uses the symbol id of the
+	 * function name to look up the appropriate primitive in the dispatch
+	 * table of the Primitives class. That primitive is invoked with
 	 * the 'data' component of the current S-Expression as an argument.  This
 	 * is because in the operational semantics, the primitives operate on the
 	 * CADR or CDR of the S-Expression. So we simplify here by just passing
 	 * the CDR and the primitives do any further chomping.
 	 * 
+	 * The current frame is handed on to whatever is invoked so that
+	 * it can evaluate its arguments where the call was written.
+	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
 	 * @since 2012-11-02
-	 * @version 2012-11-02
+	 * @version 2026-10-18
 	 *
 	 * @param flag Whether or not to interpret numerics literally
+	 * @param env The frame of the function being run, or of the session at the top level
 	 * 
 	 * @return The TreeNode representation of the result
 	 * 
 	 * @throws Exception If the function name, variable, etc. is undefined
 	 *
 	 */
-	protected TreeNode evaluate( boolean flag ) throws Exception{
-		String a = address.evaluate().toString();
-		SExpression params;
-		TreeNode rtn;
-
-		if ( flag && a.matches(Patterns.NUMERIC_ATOM) ){
-			return address.evaluate();
-		} else if ( a.matches("NIL") || a.matches("T") ){
-			return a.matches("NIL") ? Primitives.NIL() : Primitives.T();
-		} else if ( Environment.varIsDefined(a) ){
-			return Environment.getVarValue(a);
-		} else if ( Environment.functionIsDefined(a) ){
-			return Environment.executeFunction(a, TreeNode.create(dataTokens));
-		} else if ( a.matches("CAR") || a.matches("CDR") ){
-			SExpression s;
-			if ( data.isList() ){
-				s = new SExpression(dataTokens);
-				s = new SExpression(s.address.evaluate().tokens);
-				// s = new SExpression(s.evaluate().tokens);
-			} else {
-				s = new SExpression(dataTokens);
-			}
-			params = s;
-		} else if ( a.matches("DEFUN") ){
-			return Primitives.DEFUN((SExpression) data);
-		} else {
-			params = (SExpression) data;
+	public TreeNode evaluate( boolean flag, Frame env ) throws Exception{
+		if ( address instanceof Variable ){
+			return address.evaluate(flag, env);
 		}
 
-		try{
-			rtn = invokePrimitive(a, params);
-			
-			/**
-			 * @note: The commented code below was an attempt to improve
-			 * performance over using reflection, but standard timing
-			 * benchmarks showed no performance increase.  So I kept the 
-			 * reflection strategy as opposed to increasing code complexity.
-			 */
-
-			// Primitives.Primitive enumVal = Primitives.Primitive.valueOf(a);
+		TreeNode head = address.evaluate(false, env);
 
-			// switch(enumVal){
-			// 	case PLUS: rtn = Primitives.PLUS(params); break;
-			// 	case MINUS: rtn = Primitives.MINUS(params); break;
-			// 	case T: rtn = Primitives.T(); break;
-			// 	case NIL: rtn = Primitives.NIL(); break;
-			// 	case CONS: rtn = Primitives.CONS(params); break;
-			// 	case CAR: rtn = Primitives.CAR(params); break;
-			// 	case CDR: rtn = Primitives.CDR(params); break;
-			// 	case ATOM: rtn = Primitives.ATOM(params); break;
-			// 	case EQ: rtn = Primitives.EQ(params); break;
-			// 	case NULL: rtn = Primitives.NULL(params); break;
-			// 	case INT: rtn = Primitives.INT(params); break;
-			// 	case QUOTIENT: rtn = Primitives.QUOTIENT(params); break;
-			// 	case TIMES: rtn = Primitives.TIMES(params); break;
-			// 	case REMAINDER: rtn = Primitives.REMAINDER(params); break;
-			// 	case LESS: rtn = Primitives.LESS(params); break;
-			// 	case GREATER: rtn = Primitives.GREATER(params); break;
-			// 	case COND: rtn = Primitives.COND(params); break;
-			// 	case QUOTE: rtn = Primitives.QUOTE(params); break;
-			// 	case DEFUN: rtn = Primitives.DEFUN(params); break;
-			// 	default: 
-			// 		throw new Exception("Error! Undfined literal: " + a);
-			// }
-			return rtn;
-		} catch (Exception e){
-			throw e;
-			// throw new Exception("Error! Undefined literal: " + toString());
-			// throw new Exception("Error!");
+		if ( flag && head instanceof Atom && ((Atom) head).isNumber() ){
+			return head;
+		} else if ( head == Atom.NIL || head == Atom.T ){
+			return head;
 		}
-	}
 
-	/**
-	 * Function: invokePrimitive
-	 * 
-	 * This function contains the reflection logic to call one of the
-	 * functions of the Primitives class with the appropriate SExpression
-	 * passed as data.  If the return value is boolean, it returns the
-	 * appropriate atom representation.
-	 * 
-	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
-	 * @since 2012-11-02
-	 * @version 2012-11-02
-	 *
-	 * @param name The string name of the requested function
-	 * @param obj The data to be used as primitive data
-	 * 
-	 * @return The object returned by the primitive cast as a TreeNode (what it should be anyway)
-	 * 
-	 * @throws Exception If the primitive does not exist
-	 *
-	 */
-	private TreeNode invokePrimitive(String name, SExpression obj) throws Exception{
-		java.lang.reflect.Method m;
+		// Without a frame there is no environment, and so only primitives: which is how constants are folded
+		UserFunction f = env == null ? null : head instanceof Atom ? env.environment.getFunction((Atom) head) : env.environment.getFunction(head.toString());
+		if ( f != null ){
+			return f.evaluate(data, env);
+		} else if ( !(data instanceof SExpression) ){
+			throw new Exception("Error! Missing arguments to: " + head.toString());
+		}
 
-		m = Primitives.class.getDeclaredMethod(name, SExpression.class);
-		m.setAccessible(true);
-		Object o = m.invoke(null, obj);
-		if ( o.toString().matches("true") ){
-			return new Atom("T");
-		} else if ( o.toString().matches("false") ){
-			return new Atom("NIL");
-		} else {
-			return (TreeNode) o;
+		Primitives.Primitive p = Primitives.lookup(head.symbol());
+		if ( p == null ){
+			throw new Exception("Error! Undefined function: " + head.toString());
 		}
+		return p.apply((SExpression) data, env);
 	}
 }
@@ -0,0 +1,241 @@
+package parser;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
+import lexer.Symbols;
+
+/**
+ * File: Scheduler.java
+ *
+ * Runs the top-level statements of a session on a ForkJoinPool, as many
+ * at a time as can be, while printing their values in the order they
+ * were written, exactly as running them one after another would.
+ *
+ * Statements only share what earlier statements have defined, so one
+ * which defines nothing and whose value depends only on the functions
+ * defined so far can run at the same time as its neighbours. Any other
+ * statement is ordered: every statement before it is finished, and its
+ * value printed, before it is run, on the calling thread, and nothing
+ * after it is read until it is done. A statement is ordered if it may,
+ * directly or through any function it may call as defined now:
+ *
+ *	define a function (DEFUN or DEFMEMO);
+ *	call a memoized function, whose cache and counts are shared;
+ *	report counts kept across statements (MEMOSTATS or FOLDSTATS); or
+ *	call a function named by anything but a symbol, which could be any.
+ *
+ * At most a few statements per thread are read ahead, so a long program
+ * is not held in memory. If a statement fails, the values of those
+ * before it are printed and its error is thrown, just as it would have
+ * been; statements after it which had already started are abandoned.
+ *
+ * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+ * @since 2026-10-18
+ * @version 2026-10-18
+ *
+ * @see Interpreter
+ */
+
+public final class Scheduler{
+
+	private static final int QUOTE = Symbols.intern("QUOTE");
+	private static final int COND = Symbols.intern("COND");
+	private static final int DEFUN = Symbols.intern("DEFUN");
+	private static final int DEFMEMO = Symbols.intern("DEFMEMO");
+	private static final int MEMOSTATS = Symbols.intern("MEMOSTATS");
+	private static final int FOLDSTATS = Symbols.intern("FOLDSTATS");
+	private static final int PCALL = Symbols.intern("PCALL");
+	private static final int AHEAD = 4;
+
+	/**
+	 * Interface: Engine
+	 *
+	 * Whatever runs a statement: the tree-walking evaluator of the
+	 * session, or a machine. Each thread of the pool is given an engine
+	 * of its own.
+	 */
+	public interface Engine{
+		TreeNode run(TreeNode statement) throws Exception;
+	}
+
+	/**
+	 * Class: Statement
+	 *
+	 * A statement running on the pool, and what became of it
+	 */
+	private static final class Statement implements Runnable{
+		final TreeNode form;
+		final ThreadLocal <Engine> engines;
+		TreeNode value = null;
+		Throwable failure = null;
+
+		Statement(TreeNode f, ThreadLocal <Engine> e){
+			form = f;
+			engines = e;
+		}
+
+		public void run(){
+			try{
+				value = engines.get().run(form);
+			} catch (Throwable t){
+				failure = t;
+			}
+		}
+	}
+
+	private final Interpreter session;
+	private final int threads;
+
+	/**
+	 * Function: Scheduler
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param s The session the statements are run in
+	 * @param n The number of threads to run them on
+	 */
+	public Scheduler(Interpreter s, int n){
+		session = s;
+		threads = Math.max(n, 1);
+	}
+
+	/**
+	 * Function: evaluate
+	 *
+	 * Reads and runs every statement of a program, printing the value of
+	 * each to the output of the session in turn
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param p The parser to read statements from
+	 * @param engines Makes the engine for each thread, and the calling one
+	 *
+	 * @throws Exception If a statement is malformed or its evaluation fails
+	 */
+	public void evaluate(Parser p, Supplier <Engine> engines) throws Exception{
+		ThreadLocal <Engine> local = ThreadLocal.withInitial(engines);
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		ArrayDeque <ForkJoinTask <?>> tasks = new ArrayDeque <ForkJoinTask <?>> ();
+		ArrayDeque <Statement> running = new ArrayDeque <Statement> ();
+		try{
+			while ( true ){
+				TreeNode t;
+				try{
+					t = p.next();
+				} catch (Exception e){
+					// Whatever was read before the error is still run, as it would have been
+					while ( !running.isEmpty() ){
+						print(tasks.poll(), running.poll());
+					}
+					throw e;
+				}
+				if ( t == null ){
+					break;
+				}
+
+				if ( isIndependent(t) ){
+					Statement s = new Statement(t, local);
+					running.add(s);
+					tasks.add(pool.submit(s));
+					if ( running.size() > threads * AHEAD ){
+						print(tasks.poll(), running.poll());
+					}
+				} else {
+					while ( !running.isEmpty() ){
+						print(tasks.poll(), running.poll());
+					}
+					session.out().println(local.get().run(t));
+				}
+			}
+			while ( !running.isEmpty() ){
+				print(tasks.poll(), running.poll());
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * Function: print
+	 *
+	 * Waits for a statement to finish and prints its value
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param task The task running the statement
+	 * @param s The statement
+	 *
+	 * @throws Exception If the statement failed
+	 */
+	private void print(ForkJoinTask <?> task, Statement s) throws Exception{
+		task.join();
+		if ( s.failure instanceof Exception ){
+			throw (Exception) s.failure;
+		} else if ( s.failure instanceof Error ){
+			throw (Error) s.failure;
+		} else if ( s.failure != null ){
+			throw new Exception(s.failure);
+		}
+		session.out().println(s.value);
+	}
+
+	/**
+	 * Function: isIndependent
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param statement A top-level statement, as it will be run
+	 *
+	 * @return True if it can run at the same time as its neighbours
+	 */
+	private boolean isIndependent(TreeNode statement){
+		ArrayDeque <TreeNode> work = new ArrayDeque <TreeNode> ();
+		work.push(statement);
+		while ( !work.isEmpty() ){
+			TreeNode t = work.pop();
+			if ( !(t instanceof SExpression) ){
+				continue;
+			}
+			SExpression s = (SExpression) t;
+			if ( s.address instanceof SExpression ){
+				return false;
+			}
+			int head = s.address.symbol();
+			if ( head == QUOTE ){
+				continue;
+			} else if ( head == DEFUN || head == DEFMEMO || head == MEMOSTATS || head == FOLDSTATS ){
+				return false;
+			}
+			String callee = head >= 0 && !Primitives.isPrimitive(head) ? s.address.toString()
+				: head == PCALL && s.data instanceof SExpression ? ((SExpression) s.data).address.toString() : null;
+			if ( callee != null ){
+				UserFunction f = session.environment().getFunction(callee);
+				if ( f != null && !f.isIndependent() ){
+					return false;
+				}
+			}
+			for ( TreeNode rest = s.data; rest instanceof SExpression; rest = ((SExpression) rest).data ){
+				TreeNode element = ((SExpression) rest).address;
+				if ( head == COND ){
+					// A clause is not a call: its test and its result are
+					for ( TreeNode c = element; c instanceof SExpression; c = ((SExpression) c).data ){
+						work.push(((SExpression) c).address);
+					}
+				} else {
+					work.push(element);
+				}
+			}
+		}
+		return true;
+	}
+}
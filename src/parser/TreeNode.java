@@ -1,16 +1,11 @@
 package parser;
 
-import java.util.*;
-import helpers.*;
-
 /**
  * File: TreeNode.java
  * 
  * This is the central data structure for representing Atoms
- * and S-Expressions.  It maintains the string vector of
- * tokens which make up the object and also employs the factory
- * pattern to create new TreeNodes based on whether or not they
- * are valid S-Expressions.
+ * and S-Expressions. It also employs the factory pattern to
+ * create Atoms from plain Java values.
  * 
  * This class also stipulates the evaluate funcntions and the
  * isList method.
@@ -23,33 +18,22 @@ import helpers.*;
 
 abstract public class TreeNode{
 	protected abstract boolean isList();
-	protected Vector <String> tokens = new Vector <String> ();
 
 	/**
-	 * Function: create
+	 * Function: symbol
 	 * 
-	 * Uses the factory pattern to create an atom if the passed string
-	 * vector is appropriate or an S-Expression.
+	 * Gives the symbol id of an Atom so callers can compare names
+	 * as integers. Anything that is not an Atom has no symbol.
 	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
-	 * @since 2012-11-01
-	 * @version 2012-11-01
+	 * @since 2026-10-18
+	 * @version 2026-10-18
 	 *
-	 * @param s The string vector of the new TreeNode
-	 * 
-	 * @return The new TreeNode object
-	 * 
-	 * @throws Exception If the node is empty or if the constructor fails
+	 * @return The symbol id, or -1 if this is not an Atom
 	 *
 	 */
-	static TreeNode create(Vector <String> s) throws Exception{
-		if ( s.size() > 0 && s.get(0).matches("[(]") ){
-			return new SExpression(s);
-		} else if ( s.size() > 0 ){
-			return new Atom(s.get(0));
-		} else {
-			throw new Exception("Tried to create a TreeNode with no data");
-		}
+	public int symbol(){
+		return -1;
 	}
 
 	/**
@@ -68,7 +52,7 @@ abstract public class TreeNode{
 	 *
 	 */
 	static TreeNode create(boolean b){
-		return new Atom(b);
+		return b ? Atom.T : Atom.NIL;
 	}
 
 	/**
@@ -79,15 +63,15 @@ abstract public class TreeNode{
 	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
 	 * @since 2012-11-01
-	 * @version 2012-11-01
+	 * @version 2026-10-18
 	 *
 	 * @param i The integer to use as a literal
 	 * 
 	 * @return The new Atom
 	 *
 	 */
-	static TreeNode create(int i){
-		return new Atom(i);
+	static TreeNode create(long i){
+		return Atom.fixnum(i);
 	}
 
 	/**
@@ -97,12 +81,15 @@ abstract public class TreeNode{
 	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
 	 * @since 2012-11-01
-	 * @version 2012-11-01
+	 * @version 2026-10-18
 	 * 
-	 * @return The result of evaluating the TreeNode
+	 * @return The result of evaluating the TreeNode outside any session,
+	 *         where only primitives are defined
 	 *
 	 */
-	abstract TreeNode evaluate() throws Exception;
+	TreeNode evaluate() throws Exception{
+		return evaluate(false, null);
+	}
 
 	/**
 	 * Function: evaluate
@@ -111,14 +98,16 @@ abstract public class TreeNode{
 	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
 	 * @since 2012-11-01
-	 * @version 2012-11-01
+	 * @version 2026-10-18
 	 * 
 	 * @param flag Whether or not to take numericals literally
 	 * 
-	 * @return The result of evaluating the TreeNode
+	 * @return The result of evaluating the TreeNode at the top level
 	 *
 	 */
-	abstract TreeNode evaluate(boolean flag) throws Exception;
+	TreeNode evaluate(boolean flag) throws Exception{
+		return evaluate(flag, null);
+	}
 	
 	/**
 	 * Function: evaluate
@@ -127,15 +116,15 @@ abstract public class TreeNode{
 	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
 	 * @since 2012-11-01
-	 * @version 2012-11-01
+	 * @version 2026-10-18
 	 * 
 	 * @param flag Whether or not to take numericals literally
-	 * @param env The scoped variables
+	 * @param env The frame of the function being run, or of the session at the top level
 	 * 
 	 * @return The result of evaluating the TreeNode
 	 *
 	 */
-	abstract TreeNode evaluate(boolean flag, Hashtable <String, TreeNode> env) throws Exception;
+	public abstract TreeNode evaluate(boolean flag, Frame env) throws Exception;
 	
 	/**
 	 * Function: evaluate
@@ -144,12 +133,14 @@ abstract public class TreeNode{
 	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
 	 * @since 2012-11-01
-	 * @version 2012-11-01
+	 * @version 2026-10-18
 	 * 
-	 * @param env The scoped variables
+	 * @param env The frame of the function being run, or of the session at the top level
 	 * 
 	 * @return The result of evaluating the TreeNode
 	 *
 	 */	
-	abstract TreeNode evaluate(Hashtable <String, TreeNode> env) throws Exception;
+	TreeNode evaluate(Frame env) throws Exception{
+		return evaluate(false, env);
+	}
 }
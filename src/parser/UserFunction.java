@@ -1,5 +1,9 @@
 package parser;
+import java.lang.invoke.MethodHandle;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import lexer.Symbols;
+import vm.Jit;
 
 /**
  * File: UserFunction.java
@@ -7,22 +11,93 @@ import java.util.*;
  * This is the data structure which represents user-defined
  * Lisp functions.
  * 
+ * The body is kept with each reference to a formal parameter already
+ * resolved to the slot it will occupy in the frame of a call, so that
+ * running the function never looks a variable up by name, and with its
+ * constant parts already worked out by the ConstantFolder and the calls
+ * of small functions replaced by their bodies by the Inliner; the
+ * parameters and body as written are kept to define the function again
+ * should any of those be redefined. That body is then compiled into a
+ * tree of executable nodes, which is what a call actually runs, at
+ * least at first: once a function has been called often enough it is
+ * handed to the JIT and compiled to JVM bytecode.
+ * 
+ * Calls in tail position are not made where they are written. They
+ * come back from the body as a Pending call, which is run in place of
+ * the call that returned it, so self- and mutually tail-recursive
+ * functions loop in constant Java stack.
+ * 
+ * A function defined with DEFMEMO remembers its results in a Memo, and
+ * keeps the names of the functions its body calls so that redefining
+ * any of them can empty it.
+ * 
+ * A function belongs to the Environment it was defined in, and the
+ * functions its body calls are looked up there.
+ * 
  * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
  * @since 2012-11-02
- * @version 2012-11-02
+ * @version 2026-10-18
  *
  */
 
-class UserFunction{
+public class UserFunction{
+
+	private static final int QUOTE = Symbols.intern("QUOTE");
+	private static final int DEFUN = Symbols.intern("DEFUN");
+	private static final int DEFMEMO = Symbols.intern("DEFMEMO");
+	private static final int COND = Symbols.intern("COND");
+	private static final int MEMOSTATS = Symbols.intern("MEMOSTATS");
+	private static final int FOLDSTATS = Symbols.intern("FOLDSTATS");
+	private static final int PCALL = Symbols.intern("PCALL");
+	private static final int MEMO_SIZE = Integer.getInteger("lisp.memo.size", 10000);
 
+	protected final Environment environment;
 	protected String name;
 	protected Vector <String> formals;
 	protected TreeNode body;
+	protected Node code;
+	protected final AtomicInteger invocations = new AtomicInteger();
+	protected volatile MethodHandle compiled = null;
+	protected boolean current = true;
+	protected Memo memo = null;
+	protected Vector <String> callees = new Vector <String> ();
+	protected boolean effects = false;
+	protected int nodes = 0;
+	protected int eliminated = 0;
+	protected Vector <String> inlined = new Vector <String> ();
+	protected TreeNode parameters;
+	protected TreeNode definition;
+
+	/**
+	 * Class: Pending
+	 * 
+	 * A call made in tail position, still to be run. It never escapes
+	 * a UserFunction: whoever called the function runs it first, and
+	 * takes its actuals from it as it does, so that the pending call
+	 * holds on to nothing once it is under way.
+	 */
+	static final class Pending extends TreeNode{
+		final UserFunction function;
+		TreeNode[] actuals;
+
+		Pending(UserFunction f, TreeNode[] a){
+			function = f;
+			actuals = a;
+		}
+
+		protected boolean isList(){
+			return false;
+		}
+
+		public TreeNode evaluate(boolean flag, Frame env) throws Exception{
+			return settle(this);
+		}
+	}
 
 	/**
 	 * Function: UserFunction
 	 * 
-	 * Constructor: UserFunction(String n, TreeNode f, TreeNode b)
+	 * Constructor: UserFunction(Environment e, String n, TreeNode f, TreeNode b)
 	 * 
 	 * This function creates a user-defined function with the specified
 	 * name, list of formal parameters, and body.
@@ -31,88 +106,642 @@ class UserFunction{
 	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
 	 * @since 2012-11-02
-	 * @version 2012-11-02
+	 * @version 2026-10-18
+	 *
+	 * @param e The environment the function is defined in
+	 * @param n The name of the function
+	 * @param f The list of formals - can be ()
+	 * @param b The body of the function
+	 * 
+	 * @throws Exception If the parameters are not in the correct format
 	 *
+	 */
+	public UserFunction(Environment e, String n, TreeNode f, TreeNode b) throws Exception{
+		this(e, n, f, b, false);
+	}
+
+	/**
+	 * Function: UserFunction
+	 * 
+	 * Constructor: UserFunction(Environment e, String n, TreeNode f, TreeNode b, boolean m)
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param e The environment the function is defined in
 	 * @param n The name of the function
 	 * @param f The list of formals - can be ()
 	 * @param b The body of the function
+	 * @param m Whether the function remembers its results
 	 * 
 	 * @throws Exception If the parameters are not in the correct format
 	 *
 	 */
-	public UserFunction(String n, TreeNode f, TreeNode b) throws Exception{
+	public UserFunction(Environment e, String n, TreeNode f, TreeNode b, boolean m) throws Exception{
+		environment = e;
 		name = n;
-		if ( (!f.isList() && !f.toString().matches("NIL") ) || ( !b.isList() && !b.toString().matches("NIL") ) ){
+		if ( (!f.isList() && f != Atom.NIL ) || ( !b.isList() && b != Atom.NIL ) ){
 			throw new Exception("Invalid function parameters or body.\n" + f.toString() + "\n" + b.toString());
 		}
 
-		String formalString = f.toString();
-		formals = splitParamList(formalString);
-		body = b;
+		formals = splitParamList(f);
+		Vector <Vector <String>> scopes = new Vector <Vector <String>> ();
+		scopes.add(formals);
+		TreeNode resolved = resolve(b, scopes);
+		TreeNode folded = ConstantFolder.fold(resolved);
+		nodes = ConstantFolder.size(resolved);
+		eliminated = folded == resolved ? 0 : nodes - ConstantFolder.size(folded);
+		collectCallees(folded);
+		body = Inliner.inline(folded, e, n, inlined);
+		if ( body != folded ){
+			TreeNode expanded = body;
+			body = ConstantFolder.fold(expanded);
+			eliminated += body == expanded ? 0 : ConstantFolder.size(expanded) - ConstantFolder.size(body);
+		}
+		e.record(nodes, eliminated);
+		code = NodeCompiler.compile(body, true, true);
+		parameters = f;
+		definition = b;
+		if ( m ){
+			memo = new Memo(MEMO_SIZE);
+		}
+	}
+
+	/**
+	 * Function: name
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @return The name of the function
+	 *
+	 */
+	public String name(){
+		return name;
+	}
+
+	/**
+	 * Function: environment
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @return The environment the function is defined in
+	 *
+	 */
+	public Environment environment(){
+		return environment;
+	}
+
+	/**
+	 * Function: arity
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @return The number of formal parameters
+	 *
+	 */
+	public int arity(){
+		return formals.size();
+	}
+
+	/**
+	 * Function: isCurrent
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @return False once the function has been redefined
+	 *
+	 */
+	public boolean isCurrent(){
+		return current;
+	}
+
+	/**
+	 * Function: isMemoized
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @return True if the function was defined with DEFMEMO
+	 *
+	 */
+	public boolean isMemoized(){
+		return memo != null;
+	}
+
+	/**
+	 * Function: remembered
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param actuals The values of the actual parameters of a call of a memoized function
+	 * 
+	 * @return The result remembered for them, or null if there is none
+	 *
+	 */
+	public TreeNode remembered(TreeNode[] actuals){
+		return memo.get(actuals);
+	}
+
+	/**
+	 * Function: remember
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param actuals The values of the actual parameters of a call of a memoized function
+	 * @param result The result of the call
+	 *
+	 */
+	public void remember(TreeNode[] actuals, TreeNode result){
+		memo.put(actuals, result);
+	}
+
+	/**
+	 * Function: mayCall
+	 * 
+	 * Follows the calls made by the body, and by the bodies of the
+	 * functions it calls, as they are defined now
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param callee The name of a function
+	 * 
+	 * @return True if running this function might call that one
+	 *
+	 */
+	boolean mayCall(String callee){
+		if ( callees == null ){
+			return true;
+		}
+		HashSet <String> seen = new HashSet <String> ();
+		ArrayDeque <String> work = new ArrayDeque <String> (callees);
+		while ( !work.isEmpty() ){
+			String n = work.pop();
+			if ( n.equals(callee) ){
+				return true;
+			} else if ( seen.add(n) ){
+				UserFunction f = environment.getFunction(n);
+				if ( f != null && f.callees == null ){
+					return true;
+				} else if ( f != null ){
+					work.addAll(f.callees);
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Function: isIndependent
+	 * 
+	 * Follows the calls made by the body, as mayCall does, looking for
+	 * anything whose outcome depends on what other statements have run
+	 * or are running: a definition, a memoized function, whose counts
+	 * and cache are shared, or a report of the counts kept across calls
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @return True if calls of the function, as defined now, can be made
+	 *         at the same time as, or in any order with, other such calls
+	 *
+	 */
+	boolean isIndependent(){
+		HashSet <UserFunction> seen = new HashSet <UserFunction> ();
+		ArrayDeque <UserFunction> work = new ArrayDeque <UserFunction> ();
+		work.push(this);
+		seen.add(this);
+		while ( !work.isEmpty() ){
+			UserFunction f = work.pop();
+			if ( f.callees == null || f.effects || f.memo != null ){
+				return false;
+			}
+			for ( String n : f.callees ){
+				// A library function calls the functions of its library
+				UserFunction g = f.environment.getFunction(n);
+				if ( g != null && seen.add(g) ){
+					work.push(g);
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Function: body
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @return The body, with references to the formals already resolved to frame slots
+	 *
+	 */
+	public TreeNode body(){
+		return body;
 	}
 
 	/**
 	 * Function: evaluate
 	 * 
 	 * This carries out the basic evaluation of a custom function by
-	 * invoking the body with the passed actual parameters.
+	 * running the compiled body in a new frame holding the actual parameters.
+	 * Functions are only ever defined at the top level, so the new
+	 * frame has no parent: the caller's variables are not visible.
 	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
 	 * @since 2012-11-02
-	 * @version 2012-11-02
+	 * @version 2026-10-18
 	 *
 	 * @param actuals The list (possible NIL) of actual parameters
+	 * @param env The frame of the caller, to evaluate the actuals in
 	 * 
 	 * @return The result of evaluating the body
 	 * 
 	 * @throws Exception If evaluation fails
 	 *
 	 */
-	protected TreeNode evaluate(TreeNode actuals) throws Exception{
-		Hashtable <String, TreeNode> bindings = bind(actuals);
-		// Environment.vars.putAll(bindings);
-		// Iterator it = bindings.entrySet().iterator();
-		// int i = 0;
-		// TreeNode tmp = TreeNode.create(body.tokens);
-		// while ( it.hasNext() ){
-		// 	Map.Entry pair = (Map.Entry) it.next();
-		// 	tmp.replace(formals.get(i), pair.getValue().toString());
-		// 	it.remove();
-		// 	i++;
-		// }
-		return body.evaluate(true, bindings);
+	protected TreeNode evaluate(TreeNode actuals, Frame env) throws Exception{
+		return run(bind(actuals, env));
+	}
+
+	/**
+	 * Function: call
+	 * 
+	 * Calls the function from compiled code, where the actual parameters
+	 * are already compiled too
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param actuals The compiled actual parameters
+	 * @param env The frame of the caller, to execute the actuals in
+	 * 
+	 * @return The result of running the body
+	 * 
+	 * @throws Exception If the number of actuals is wrong or evaluation fails
+	 *
+	 */
+	protected TreeNode call(Node[] actuals, Frame env) throws Exception{
+		return run(values(actuals, env));
+	}
+
+	/**
+	 * Function: defer
+	 * 
+	 * Evaluates the actual parameters of a call in tail position, but
+	 * leaves the call itself to be run once the caller has returned
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param actuals The compiled actual parameters
+	 * @param env The frame of the caller, to execute the actuals in
+	 * 
+	 * @return The pending call
+	 * 
+	 * @throws Exception If the number of actuals is wrong or evaluating them fails
+	 *
+	 */
+	protected TreeNode defer(Node[] actuals, Frame env) throws Exception{
+		return new Pending(this, values(actuals, env));
+	}
+
+	/**
+	 * Function: invoke
+	 * 
+	 * Calls the function with actual parameters which are already values
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param actuals The values of the actual parameters
+	 * 
+	 * @return The result of running the body
+	 * 
+	 * @throws Exception If the number of actuals is wrong or evaluation fails
+	 *
+	 */
+	public TreeNode invoke(TreeNode[] actuals) throws Exception{
+		checkArity(actuals.length);
+		return run(actuals);
+	}
+
+	/**
+	 * Function: tailCall
+	 * 
+	 * Makes a call in tail position from the compiled code of this
+	 * function, of a function defined in the same environment
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param name The name of the function called
+	 * @param actuals The values of the actual parameters
+	 * 
+	 * @return The pending call, for the caller to return
+	 * 
+	 * @throws Exception If the function is undefined or the number of actuals is wrong
+	 *
+	 */
+	public TreeNode tailCall(String name, TreeNode[] actuals) throws Exception{
+		UserFunction f = environment.getFunction(name);
+		if ( f == null ){
+			throw new Exception("Error! Undefined function: " + name);
+		}
+		f.checkArity(actuals.length);
+		return new Pending(f, actuals);
+	}
+
+	/**
+	 * Function: settle
+	 * 
+	 * Runs the pending calls a body has returned, one after another, until
+	 * one of them returns a value
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param result What a body returned
+	 * 
+	 * @return The value of the call
+	 * 
+	 * @throws Exception If evaluation fails
+	 *
+	 */
+	public static TreeNode settle(TreeNode result) throws Exception{
+		while ( result instanceof Pending ){
+			Pending p = (Pending) result;
+			TreeNode[] actuals = p.actuals;
+			// Whoever is waiting on the first pending call need not keep its actuals alive, e.g. the head of a stream being walked
+			p.actuals = null;
+			result = p.function.memo == null ? p.function.step(actuals) : p.function.run(actuals);
+		}
+		return result;
+	}
+
+	/**
+	 * Function: run
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param slots The values of the actual parameters
+	 * 
+	 * @return The result of the call, with any calls in tail position made
+	 * 
+	 * @throws Exception If evaluation fails
+	 *
+	 */
+	private TreeNode run(TreeNode[] slots) throws Exception{
+		if ( memo == null ){
+			TreeNode result = step(slots);
+			slots = null;
+			return settle(result);
+		}
+		TreeNode result = memo.get(slots);
+		if ( result == null ){
+			result = settle(step(slots));
+			memo.put(slots, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Function: step
+	 * 
+	 * Runs the body on the given frame slots, counting the call. The call
+	 * which reaches the JIT threshold compiles the function, and every
+	 * call after that runs the compiled code. Calls may be made on many
+	 * threads at once (by PCALL, or by statements run in parallel), so the
+	 * count is atomic: exactly one call reaches the threshold.
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param slots The values of the actual parameters
+	 * 
+	 * @return The result of running the body, which may be a pending call
+	 * 
+	 * @throws Exception If evaluation fails
+	 *
+	 */
+	private TreeNode step(TreeNode[] slots) throws Exception{
+		if ( compiled == null && memo == null && Jit.threshold() > 0 && invocations.incrementAndGet() == Jit.threshold() ){
+			compiled = Jit.compile(this);
+		}
+		if ( compiled != null ){
+			return Jit.invoke(compiled, slots);
+		}
+		return code.execute(new Frame(slots, environment));
+	}
+
+	/**
+	 * Function: values
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param actuals The compiled actual parameters
+	 * @param env The frame of the caller, to execute the actuals in
+	 * 
+	 * @return The values of the actual parameters, by slot
+	 * 
+	 * @throws Exception If the number of actuals is wrong or evaluating them fails
+	 *
+	 */
+	private TreeNode[] values(Node[] actuals, Frame env) throws Exception{
+		checkArity(actuals.length);
+		TreeNode[] slots = new TreeNode[actuals.length];
+		for ( int i = 0; i < slots.length; i++ ){
+			slots[i] = actuals[i].execute(env);
+		}
+		return slots;
+	}
+
+	/**
+	 * Function: checkArity
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param n The number of actual parameters of a call
+	 * 
+	 * @throws Exception If it is not the number of formal parameters
+	 *
+	 */
+	private void checkArity(int n) throws Exception{
+		if ( n < formals.size() ){
+			throw new Exception("Error! Too few arguments for: " + name);
+		} else if ( n > formals.size() ){
+			throw new Exception("Error! Too many arguments for: " + name);
+		}
+	}
+
+	/**
+	 * Function: resolve
+	 * 
+	 * Copies an expression of the body, swapping every symbol which names
+	 * a variable in scope for a reference to where that variable lives.
+	 * Quoted data is left alone, as is any DEFUN, since the function it
+	 * defines does not see these variables.
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param t The expression
+	 * @param scopes The names bound by each enclosing frame, innermost first
+	 * 
+	 * @return The expression with its variables resolved
+	 *
+	 */
+	private static TreeNode resolve(TreeNode t, Vector <Vector <String>> scopes){
+		if ( t instanceof Atom ){
+			Atom a = (Atom) t;
+			if ( a.isNumber() ){
+				return a;
+			}
+			for ( int depth = 0; depth < scopes.size(); depth++ ){
+				int slot = scopes.get(depth).indexOf(a.toString());
+				if ( slot >= 0 ){
+					return new Variable(a, depth, slot);
+				}
+			}
+			return a;
+		} else if ( !(t instanceof SExpression) ){
+			return t;
+		}
+
+		SExpression s = (SExpression) t;
+		if ( s.address.symbol() == QUOTE || s.address.symbol() == DEFUN || s.address.symbol() == DEFMEMO ){
+			return s;
+		}
+
+		// Rebuild the list spine front to back, resolving each element
+		SExpression first = new SExpression(resolve(s.address, scopes), Atom.NIL);
+		SExpression last = first;
+		TreeNode rest = s.data;
+		while ( rest instanceof SExpression ){
+			SExpression cell = new SExpression(resolve(((SExpression) rest).address, scopes), Atom.NIL);
+			last.data = cell;
+			last = cell;
+			rest = ((SExpression) rest).data;
+		}
+		last.data = resolve(rest, scopes);
+		return first;
+	}
+
+	/**
+	 * Function: collectCallees
+	 * 
+	 * Notes the name at the head of every list in an expression of the
+	 * body. A list headed by anything but a name might call any function
+	 * at all, which is noted by dropping the list of callees altogether.
+	 * A definition, or a report of counts kept across calls, is noted as
+	 * an effect. The function named by the first argument of a PCALL is
+	 * called too.
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param t The expression
+	 *
+	 */
+	private void collectCallees(TreeNode t){
+		if ( callees == null || !(t instanceof SExpression) ){
+			return;
+		}
+		SExpression s = (SExpression) t;
+		int head = s.address.symbol();
+		if ( head == DEFUN || head == DEFMEMO ){
+			effects = true;
+			return;
+		} else if ( head == QUOTE ){
+			return;
+		} else if ( head == MEMOSTATS || head == FOLDSTATS ){
+			effects = true;
+		} else if ( s.address instanceof SExpression ){
+			callees = null;
+			return;
+		} else if ( s.address instanceof Atom && head >= 0 && !Primitives.isPrimitive(head) && !callees.contains(s.address.toString()) ){
+			callees.add(s.address.toString());
+		} else if ( head == PCALL && s.data instanceof SExpression ){
+			// The function a PCALL calls is named by its first argument
+			String n = ((SExpression) s.data).address.toString();
+			if ( !Primitives.isPrimitive(Symbols.intern(n)) && !callees.contains(n) ){
+				callees.add(n);
+			}
+		}
+		for ( TreeNode rest = s.data; rest instanceof SExpression; rest = ((SExpression) rest).data ){
+			TreeNode element = ((SExpression) rest).address;
+			if ( head == COND ){
+				// A clause is not a call: its test and its result are
+				for ( TreeNode c = element; c instanceof SExpression; c = ((SExpression) c).data ){
+					collectCallees(((SExpression) c).address);
+				}
+			} else {
+				collectCallees(element);
+			}
+		}
 	}
 
 	/**
 	 * Function: splitParams
 	 * 
 	 * This is a private helper function to create a vector of parameters
-	 * from a string. It also checks for distinct parameters and legal
-	 * parameter names.
+	 * from the formal parameter list. It also checks for distinct parameters
+	 * and legal parameter names.
 	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
 	 * @since 2012-11-02
-	 * @version 2012-11-02
+	 * @version 2026-10-18
 	 *
-	 * @param s The string of parameters
+	 * @param f The list of parameters, or NIL
 	 * 
 	 * @return A string vector of parameter names
 	 * 
 	 * @throws Exception If the parameters are malformed or inappropriate
 	 *
 	 */
-	private static Vector <String> splitParamList(String s) throws Exception{
-		String[] chunks = s.substring(1, s.length()-1).split("\\s");
+	private static Vector <String> splitParamList(TreeNode f) throws Exception{
 		Vector <String> rtn = new Vector <String> ();
-		for ( int i = 0; i < chunks.length; i++ ){
-			if ( chunks[i].matches(Patterns.VALID_FUNCTION_NAME) ){
-				if ( ! rtn.contains(chunks[i]) ){
-					rtn.add(chunks[i]);
+		for ( TreeNode t = f; t instanceof SExpression; t = ((SExpression) t).data ){
+			String name = ((SExpression) t).address.toString();
+			if ( name.matches(Patterns.VALID_FUNCTION_NAME) ){
+				if ( ! rtn.contains(name) ){
+					rtn.add(name);
 				} else {
 					throw new Exception("Error! Formal parameter names must be distinct.");
 				}
 			} else {
-				throw new Exception("Error! Invalid parameter name: " + chunks[i]);
+				throw new Exception("Error! Invalid parameter name: " + name);
 			}
 		}
 		return rtn;
@@ -121,52 +750,44 @@ class UserFunction{
 	/**
 	 * Function: bind
 	 * 
-	 * Creates a hashtable representing the bound values of 
-	 * formal parameters to actual parameters.
+	 * Evaluates the actual parameters into the slots of a new
+	 * frame, one slot for each formal parameter.
 	 * 
 	 * Also provides some checking to make sure the number of
 	 * actuals matches the number of formals.
 	 * 
 	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
 	 * @since 2012-11-02
-	 * @version 2012-11-02
+	 * @version 2026-10-18
 	 *
 	 * @param s The TreeNode object representing the actual paramters
+	 * @param env The frame of the caller
 	 * 
-	 * @return A Hashtable of bindings
+	 * @return The values of the actual parameters, by slot
 	 * 
 	 * @throws Exception If the wrong number of parameters are used or they
 	 * are malformed
 	 *
 	 */
-	private Hashtable <String, TreeNode> bind (TreeNode s) throws Exception{
-		if ( ! s.isList() && !s.toString().matches("NIL") ){
+	private TreeNode[] bind (TreeNode s, Frame env) throws Exception{
+		if ( ! s.isList() && s != Atom.NIL ){
 			throw new Exception("Error! Invalid parameters to function: " + name);
 		}
 
-		Hashtable <String, TreeNode> env = new Hashtable <String, TreeNode> ();
-
-		if ( ! s.isList() ){
-			return env;
-		}
-
-		SExpression tmp = new SExpression(s);
+		TreeNode[] slots = new TreeNode[formals.size()];
+		TreeNode tmp = s;
 		int i;
-		for ( i = 0; i < formals.size(); i++ ){
-			env.put(formals.get(i), tmp.address.evaluate());
-			try{
-				tmp = new SExpression(tmp.dataTokens);
-			} catch (Exception e){
-				break;
-			}
+		for ( i = 0; i < slots.length && tmp instanceof SExpression; i++ ){
+			slots[i] = ((SExpression) tmp).address.evaluate(env);
+			tmp = ((SExpression) tmp).data;
 		}
 
-		if ( i < formals.size() - 1 ){
+		if ( i < slots.length ){
 			throw new Exception("Error! Too few arguments for: " + name);
-		} else if ( ! tmp.data.evaluate().toString().matches("NIL") ){
+		} else if ( tmp instanceof SExpression ){
 			throw new Exception("Error! Too many arguments for: " + name);
 		}
 
-		return env;
+		return slots;
 	}
-}
\ No newline at end of file
+}
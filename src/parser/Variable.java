@@ -0,0 +1,108 @@
+package parser;
+
+/**
+ * File: Variable.java
+ * 
+ * A reference to a formal parameter inside the body of a user-defined
+ * function. When a function is defined every symbol in its body that
+ * names one of its formals is replaced by a Variable which already knows
+ * where its value will be found at run time: how many frames out, and
+ * which slot of that frame.
+ * 
+ * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+ * @since 2026-10-18
+ * @version 2026-10-18
+ *
+ * @see Frame
+ */
+
+public final class Variable extends TreeNode{
+	private final Atom name;
+	final int depth;
+	final int slot;
+
+	/**
+	 * Function: Variable
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param n The symbol naming the variable
+	 * @param d The number of frames between the reference and its binding
+	 * @param s The slot of the binding in its frame
+	 */
+	Variable(Atom n, int d, int s){
+		name = n;
+		depth = d;
+		slot = s;
+	}
+
+	/**
+	 * Function: isList
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @return False, a variable reference is not a list
+	 */
+	protected boolean isList(){
+		return false;
+	}
+
+	/**
+	 * Function: evaluate
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param flag Whether or not to take numericals literally. Not used.
+	 * @param env The frame of the function being run
+	 * 
+	 * @return The value bound to the variable
+	 */
+	public TreeNode evaluate(boolean flag, Frame env){
+		return env.get(depth, slot);
+	}
+
+	/**
+	 * Function: depth
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @return The number of frames between the reference and its binding
+	 */
+	public int depth(){
+		return depth;
+	}
+
+	/**
+	 * Function: slot
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @return The slot of the binding in its frame
+	 */
+	public int slot(){
+		return slot;
+	}
+
+	/**
+	 * Function: toString
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @return The name of the variable, as it was written
+	 */
+	public String toString(){
+		return name.toString();
+	}
+}
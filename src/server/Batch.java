@@ -0,0 +1,279 @@
+package server;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import lexer.MappedLexer;
+import parser.*;
+
+/**
+ * File: Batch.java
+ *
+ * Runs many programs in one JVM, each in a session of its own, on a
+ * fixed number of threads. The output of each program is written next
+ * to it, to a file of the same name ending in ".out" rather than
+ * ".lisp", and is exactly what running the program on its own would
+ * have printed: the value of each statement, then "Error!" if one
+ * fails, which ends that program only.
+ *
+ * The programs share the symbol table, the library and whatever the
+ * JIT has compiled of it, so none of them pays to start the JVM or to
+ * load and warm up the library again.
+ *
+ * Once every program has run, the number run, how long they took all
+ * told and the spread of the time each took, from being started to its
+ * output being written, are reported.
+ *
+ * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+ * @since 2026-10-18
+ * @version 2026-10-18
+ *
+ * @see Server
+ */
+
+public final class Batch{
+
+	/**
+	 * Class: Result
+	 *
+	 * What became of one program
+	 */
+	private static final class Result{
+		final File program;
+		final long nanos;
+		final boolean failed;
+
+		Result(File p, long n, boolean f){
+			program = p;
+			nanos = n;
+			failed = f;
+		}
+	}
+
+	private final Environment library;
+	private final Function <Interpreter, Scheduler.Engine> engines;
+	private final int threads;
+	private final boolean debug;
+
+	/**
+	 * Function: Batch
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param l The sealed environment of the library functions, or null
+	 * @param e Makes the engine to run the statements of a program
+	 * @param n The number of programs to run at once
+	 * @param d Whether the message of each error is written after it
+	 */
+	public Batch(Environment l, Function <Interpreter, Scheduler.Engine> e, int n, boolean d){
+		library = l;
+		engines = e;
+		threads = Math.max(n, 1);
+		debug = d;
+	}
+
+	/**
+	 * Function: programs
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param path A directory, whose ".lisp" files are the programs, or a
+	 *             manifest naming one program per line, relative to the
+	 *             manifest itself; blank lines are skipped
+	 *
+	 * @return The programs, in order
+	 *
+	 * @throws IOException If the directory or manifest cannot be read
+	 */
+	public static List <File> programs(File path) throws IOException{
+		if ( path.isDirectory() ){
+			File[] files = path.listFiles((d, n) -> n.endsWith(".lisp"));
+			if ( files == null ){
+				throw new IOException("Cannot list " + path);
+			}
+			Arrays.sort(files);
+			return Arrays.asList(files);
+		}
+		List <File> programs = new ArrayList <File> ();
+		File base = path.getAbsoluteFile().getParentFile();
+		for ( String line : Files.readAllLines(path.toPath()) ){
+			line = line.trim();
+			if ( line.isEmpty() ){
+				continue;
+			}
+			File f = new File(line);
+			programs.add(f.isAbsolute() ? f : new File(base, line));
+		}
+		return programs;
+	}
+
+	/**
+	 * Function: run
+	 *
+	 * Runs every program and reports how it went to the given stream
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param programs The programs to run
+	 * @param report Where the summary is written
+	 *
+	 * @return The number of programs which failed
+	 *
+	 * @throws Exception If waiting for the programs is interrupted
+	 */
+	public int run(List <File> programs, PrintStream report) throws Exception{
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		List <Future <Result>> pending = new ArrayList <Future <Result>> ();
+		long start = System.nanoTime();
+		try{
+			for ( File f : programs ){
+				pending.add(pool.submit(() -> program(f)));
+			}
+			Result[] results = new Result[pending.size()];
+			for ( int i = 0; i < results.length; i++ ){
+				results[i] = pending.get(i).get();
+			}
+			return summarize(results, System.nanoTime() - start, report);
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * Function: program
+	 *
+	 * Runs one program in a session of its own, writing its output next
+	 * to it
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param f The program
+	 *
+	 * @return What became of it
+	 */
+	private Result program(File f){
+		long start = System.nanoTime();
+		boolean failed = false;
+		try ( PrintStream out = new PrintStream(new BufferedOutputStream(new FileOutputStream(output(f)))) ){
+			MappedLexer l;
+			try{
+				l = new MappedLexer(f);
+			} catch (IOException e){
+				out.println("Error! Cannot read file: " + f);
+				return new Result(f, System.nanoTime() - start, true);
+			}
+			try{
+				Interpreter s = new Interpreter(out, library);
+				Parser p = new Parser(l, s);
+				Scheduler.Engine engine = engines.apply(s);
+				TreeNode t;
+				while ( (t = p.next()) != null ){
+					out.println(engine.run(t));
+				}
+			} catch (IOException e){
+				out.println("End of input...");
+			} catch (Exception | StackOverflowError | OutOfMemoryError e){
+				out.println("Error!");
+				if ( debug ){
+					out.println(e.getMessage());
+				}
+				failed = true;
+			}
+		} catch (IOException e){
+			// There is nowhere to write its output
+			failed = true;
+		}
+		return new Result(f, System.nanoTime() - start, failed);
+	}
+
+	/**
+	 * Function: output
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param f A program
+	 *
+	 * @return The file its output is written to
+	 */
+	static File output(File f){
+		String name = f.getName();
+		int dot = name.lastIndexOf('.');
+		return new File(f.getAbsoluteFile().getParentFile(), (dot > 0 ? name.substring(0, dot) : name) + ".out");
+	}
+
+	/**
+	 * Function: summarize
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param results What became of each program
+	 * @param nanos How long they took all told
+	 * @param report Where the summary is written
+	 *
+	 * @return The number of programs which failed
+	 */
+	private int summarize(Result[] results, long nanos, PrintStream report){
+		int failed = 0;
+		Result slowest = null;
+		long[] latencies = new long[results.length];
+		for ( int i = 0; i < results.length; i++ ){
+			latencies[i] = results[i].nanos;
+			if ( results[i].failed ){
+				failed++;
+			}
+			if ( slowest == null || results[i].nanos > slowest.nanos ){
+				slowest = results[i];
+			}
+		}
+		Arrays.sort(latencies);
+
+		double seconds = nanos / 1e9;
+		report.printf("%d programs (%d failed) in %.3f s on %d threads: %.1f programs/s%n",
+			results.length, failed, seconds, threads, seconds > 0 ? results.length / seconds : 0.0);
+		if ( slowest != null ){
+			report.printf("latency ms: p50 %.3f  p90 %.3f  p99 %.3f  max %.3f (%s)%n",
+				percentile(latencies, 50), percentile(latencies, 90), percentile(latencies, 99),
+				slowest.nanos / 1e6, slowest.program);
+		}
+		return failed;
+	}
+
+	/**
+	 * Function: percentile
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param sorted Latencies in nanoseconds, smallest first; not empty
+	 * @param p The percentile wanted
+	 *
+	 * @return That percentile, in milliseconds
+	 */
+	private static double percentile(long[] sorted, int p){
+		int i = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+		return sorted[Math.max(i, 0)] / 1e6;
+	}
+}
@@ -0,0 +1,215 @@
+package server;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import lexer.Lexer;
+import parser.*;
+
+/**
+ * File: Server.java
+ *
+ * A long-lived interpreter which takes programs over a socket, so that
+ * running one costs a connection rather than the start of a JVM. It
+ * listens on a Unix domain socket, or on a port of the loopback
+ * interface, and gives each connection a session of its own: whatever
+ * a client defines is seen by that client only, and the value of each
+ * statement it sends is written back as soon as the statement has been
+ * run. An error in a statement is reported, as "Error!", and the
+ * session carries on with the next one, even if the statement ran out
+ * of memory or stack; malformed input, or the client closing its end,
+ * ends the session.
+ *
+ * Every session shares the server's library: the functions defined by
+ * a program run when the server starts, in an environment which is
+ * then sealed. Those functions are defined, and compiled by the JIT as
+ * they get hot, once for all sessions.
+ *
+ * Each connection is served by a thread of its own, a virtual thread
+ * where the JVM has them (Java 21 on), so thousands of sessions cost
+ * little more than their state; on older JVMs the threads come from a
+ * cached pool of platform threads instead.
+ *
+ * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+ * @since 2026-10-18
+ * @version 2026-10-18
+ *
+ * @see Interpreter
+ */
+
+public final class Server{
+
+	private final Environment library;
+	private final Function <Interpreter, Scheduler.Engine> engines;
+	private final boolean debug;
+
+	/**
+	 * Function: Server
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param l The sealed environment of the library functions, or null
+	 * @param e Makes the engine to run the statements of a session
+	 * @param d Whether the message of each error is written after it
+	 */
+	public Server(Environment l, Function <Interpreter, Scheduler.Engine> e, boolean d){
+		library = l;
+		engines = e;
+		debug = d;
+	}
+
+	/**
+	 * Function: address
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param name A port number, or the path of a Unix domain socket
+	 *
+	 * @return The address to listen on
+	 */
+	public static SocketAddress address(String name){
+		if ( name.matches("[0-9]+") ){
+			return new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(name));
+		}
+		return UnixDomainSocketAddress.of(name);
+	}
+
+	/**
+	 * Function: serve
+	 *
+	 * Accepts connections until the server is stopped
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param address The address to listen on; a Unix domain socket left
+	 *                behind by an earlier server is replaced
+	 *
+	 * @throws IOException If the address cannot be listened on
+	 */
+	public void serve(SocketAddress address) throws IOException{
+		ServerSocketChannel listener;
+		if ( address instanceof UnixDomainSocketAddress ){
+			Path path = ((UnixDomainSocketAddress) address).getPath();
+			Files.deleteIfExists(path);
+			path.toFile().deleteOnExit();
+			listener = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+		} else {
+			listener = ServerSocketChannel.open();
+		}
+		ExecutorService threads = threads();
+		try ( ServerSocketChannel l = listener ){
+			// The kernel caps the backlog (at net.core.somaxconn) anyway
+			l.bind(address, 4096);
+			while ( true ){
+				SocketChannel c = l.accept();
+				threads.execute(() -> session(c));
+			}
+		} finally {
+			threads.shutdownNow();
+		}
+	}
+
+	/**
+	 * Function: session
+	 *
+	 * Runs the statements sent over one connection, writing back the
+	 * value of each
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param c The connection
+	 */
+	private void session(SocketChannel c){
+		try ( SocketChannel channel = c ){
+			PrintStream out = new PrintStream(new BufferedOutputStream(Channels.newOutputStream(channel)), true);
+			Interpreter s = new Interpreter(out, library);
+			Parser p = new Parser(new Lexer(Channels.newInputStream(channel)), s);
+			Scheduler.Engine engine = engines.apply(s);
+			while ( true ){
+				TreeNode t;
+				try{
+					t = p.next();
+				} catch (IOException e){
+					return;
+				} catch (Exception e){
+					// Where the next statement starts is anyone's guess
+					report(out, e);
+					return;
+				}
+				if ( t == null ){
+					return;
+				}
+				try{
+					out.println(engine.run(t));
+				} catch (Exception | StackOverflowError | OutOfMemoryError e){
+					report(out, e);
+				}
+			}
+		} catch (IOException e){
+			// The client has gone; there is no one to tell
+		} catch (OutOfMemoryError e){
+			// Too little memory even to start the session; the connection is closed, the server carries on
+		}
+	}
+
+	/**
+	 * Function: report
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param out The stream of the session
+	 * @param e What went wrong with a statement
+	 */
+	private void report(PrintStream out, Throwable e){
+		out.println("Error!");
+		if ( debug ){
+			out.println(e.getMessage());
+		}
+	}
+
+	/**
+	 * Function: threads
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @return An executor starting a virtual thread for each task, if the
+	 *         JVM has them, and otherwise a cached pool of daemon threads
+	 */
+	private static ExecutorService threads(){
+		try{
+			// Looked up rather than called, so that the server still builds and runs before Java 21
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException e){
+			return Executors.newCachedThreadPool(r -> {
+				Thread t = new Thread(r);
+				t.setDaemon(true);
+				return t;
+			});
+		}
+	}
+}
@@ -0,0 +1,239 @@
+package vm;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import lexer.Lexer;
+import parser.*;
+
+/**
+ * File: Bench.java
+ *
+ * The benchmark behind the inliner, so that its numbers can be measured
+ * again on any machine:
+ *
+ *	java -cp ./bin vm.Bench inline [ITERATIONS]
+ *
+ * "inline" runs a loop through small helper functions ITERATIONS times
+ * (3000000 unless given) on every engine, with inlining off
+ * (-Dlisp.inline.size=0) and at its default of 32, each in a fresh JVM
+ * since the size is fixed when the inliner is loaded, and reports the
+ * best of three runs of each in milliseconds.
+ *
+ *	java -cp ./bin vm.Bench pcall [N [THREADS]]
+ *
+ * "pcall" runs (FIB N) (27 unless given) and a TAK on the tree engine,
+ * each written once with ordinary calls and once with PCALL, in a fresh
+ * JVM for each size of the PCALL pool from 1 to THREADS (one per
+ * processor unless given), set by -Dlisp.pcall.threads, and reports the
+ * best of three runs of each in milliseconds. On a machine with more
+ * than one core the PCALL times should fall as the pool grows, while
+ * with one thread they show what forking costs over an ordinary call.
+ *
+ * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+ * @since 2026-10-18
+ * @version 2026-10-18
+ *
+ * @see Differential
+ */
+
+public class Bench{
+
+	private static final String HELPERS =
+		"(DEFUN ZEROP (X) (EQ X 0))\n" +
+		"(DEFUN DEC (X) (MINUS X 1))\n" +
+		"(DEFUN SECOND (L) (CAR (CDR L)))\n" +
+		"(DEFUN ADD (A B) (PLUS A B))\n" +
+		"(DEFUN LOOP (N L ACC) (COND ((ZEROP N) ACC) (T (LOOP (DEC N) L (ADD ACC (SECOND L))))))\n";
+
+	private static final String RECURSIVE =
+		"(DEFUN FIB (N) (COND ((LESS N 2) N) (T (PLUS (FIB (MINUS N 1)) (FIB (MINUS N 2))))))\n" +
+		"(DEFUN PFIB (N) (COND ((LESS N 2) N) (T (PCALL PLUS (PFIB (MINUS N 1)) (PFIB (MINUS N 2))))))\n" +
+		"(DEFUN TAK (X Y Z) (COND ((LESS Y X) (TAK (TAK (MINUS X 1) Y Z) (TAK (MINUS Y 1) Z X) (TAK (MINUS Z 1) X Y))) (T Z)))\n" +
+		"(DEFUN PTAK (X Y Z) (COND ((LESS Y X) (PCALL PTAK (PTAK (MINUS X 1) Y Z) (PTAK (MINUS Y 1) Z X) (PTAK (MINUS Z 1) X Y))) (T Z)))\n";
+
+	private static final String TAK = " 22 16 8)";
+
+	private static final String[] ENGINES = { "tree", "vm", "cek", "jit" };
+
+	/**
+	 * Function: main
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param args The benchmark to run, then its sizes
+	 */
+	public static void main(String[] args) throws Exception{
+		String which = args.length == 0 ? "" : args[0];
+		if ( which.equals("inline") ){
+			inline(args.length > 1 ? Integer.parseInt(args[1]) : 3000000);
+		} else if ( which.equals("loop") && args.length == 3 ){
+			// One engine and one inlining size, in a JVM started by inline
+			System.out.println(loop(args[1], Integer.parseInt(args[2])));
+		} else if ( which.equals("pcall") ){
+			pcall(args.length > 1 ? Integer.parseInt(args[1]) : 27,
+				args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors());
+		} else if ( which.equals("recurse") && args.length == 2 ){
+			// Every call at one size of pool, in a JVM started by pcall
+			System.out.println(recurse(Integer.parseInt(args[1])));
+		} else {
+			System.out.println("Usage: vm.Bench inline [ITERATIONS] | pcall [N [THREADS]]");
+			System.exit(2);
+		}
+	}
+
+	/**
+	 * Function: inline
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param iterations The number of times round the loop
+	 */
+	private static void inline(int iterations) throws Exception{
+		System.out.println("inline " + iterations + " iterations, best of 3 in ms: inline.size=0 -> 32");
+		for ( String engine : ENGINES ){
+			String[] times = new String[2];
+			String[] sizes = { "0", "32" };
+			for ( int i = 0; i < sizes.length; i++ ){
+				times[i] = child("-Dlisp.inline.size=" + sizes[i], "loop", engine, Integer.toString(iterations));
+			}
+			System.out.printf("  %-4s %s -> %s%n", engine, times[0], times[1]);
+		}
+	}
+
+	/**
+	 * Function: pcall
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param n The argument of FIB
+	 * @param threads The largest pool to run PCALLs on
+	 */
+	private static void pcall(int n, int threads) throws Exception{
+		System.out.println("pcall (FIB " + n + ") and (TAK" + TAK + ", best of 3 in ms");
+		System.out.printf("  %-17s %6s %6s %6s %6s%n", "", "FIB", "PFIB", "TAK", "PTAK");
+		for ( int t = 1; t <= threads; t++ ){
+			String out = child("-Dlisp.pcall.threads=" + t, "recurse", Integer.toString(n));
+			Object[] times = out.split("\\s+");
+			if ( times.length < 4 ){
+				// It failed; show why
+				System.out.println("  pcall.threads=" + t + " " + out);
+				continue;
+			}
+			System.out.printf("  pcall.threads=%-3d %6s %6s %6s %6s%n", t, times[0], times[1], times[2], times[3]);
+		}
+	}
+
+	/**
+	 * Function: child
+	 *
+	 * Runs the benchmark in a fresh JVM
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param property The system property it is run with
+	 * @param args What it is to run
+	 *
+	 * @return What it printed
+	 */
+	private static String child(String property, String... args) throws Exception{
+		String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+		ArrayList <String> command = new ArrayList <String> (Arrays.asList(java, property,
+			"-cp", System.getProperty("java.class.path"), "vm.Bench"));
+		command.addAll(Arrays.asList(args));
+		ProcessBuilder b = new ProcessBuilder(command);
+		b.redirectErrorStream(true);
+		Process p = b.start();
+		p.getOutputStream().close();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		p.getInputStream().transferTo(out);
+		p.waitFor();
+		return out.toString().trim();
+	}
+
+	/**
+	 * Function: recurse
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param n The argument of FIB
+	 *
+	 * @return The best time of three runs of each of FIB, PFIB, TAK and
+	 *         PTAK, in milliseconds
+	 */
+	private static String recurse(int n) throws Exception{
+		Interpreter session = new Interpreter(new PrintStream(OutputStream.nullOutputStream()));
+		Jit.setThreshold(0);
+		Parser definitions = new Parser(new Lexer(RECURSIVE), session);
+		TreeNode t;
+		while ( (t = definitions.next()) != null ){
+			session.run(t);
+		}
+		String[] calls = { "(FIB " + n + ")", "(PFIB " + n + ")", "(TAK" + TAK, "(PTAK" + TAK };
+		for ( String source : calls ){
+			// Warmed up first, so that the first timed is not the one HotSpot compiles on
+			session.run(new Parser(new Lexer(source), session).next());
+		}
+		StringBuilder times = new StringBuilder();
+		for ( String source : calls ){
+			long best = Long.MAX_VALUE;
+			for ( int r = 0; r < 3; r++ ){
+				TreeNode call = new Parser(new Lexer(source), session).next();
+				long start = System.nanoTime();
+				session.run(call);
+				best = Math.min(best, ( System.nanoTime() - start ) / 1000000);
+			}
+			times.append(best).append(' ');
+		}
+		return times.toString();
+	}
+
+	/**
+	 * Function: loop
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param engine "tree" (with the JIT off), "vm", "cek" or "jit"
+	 * @param iterations The number of times round the loop
+	 *
+	 * @return The best time of three runs of the loop, in milliseconds
+	 */
+	private static long loop(String engine, int iterations) throws Exception{
+		Interpreter session = new Interpreter(new PrintStream(OutputStream.nullOutputStream()));
+		Scheduler.Engine e;
+		if ( engine.equals("vm") ){
+			e = new Machine(session)::run;
+		} else if ( engine.equals("cek") ){
+			e = new ContinuationMachine(session)::run;
+		} else {
+			Jit.setThreshold(engine.equals("jit") ? 1000 : 0);
+			e = session::run;
+		}
+
+		Parser definitions = new Parser(new Lexer(HELPERS), session);
+		TreeNode t;
+		while ( (t = definitions.next()) != null ){
+			e.run(t);
+		}
+		long best = Long.MAX_VALUE;
+		for ( int r = 0; r < 3; r++ ){
+			TreeNode call = new Parser(new Lexer("(LOOP " + iterations + " (QUOTE (1 2 3)) 0)"), session).next();
+			long start = System.nanoTime();
+			e.run(call);
+			best = Math.min(best, ( System.nanoTime() - start ) / 1000000);
+		}
+		return best;
+	}
+}
@@ -0,0 +1,358 @@
+package vm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import lexer.Symbols;
+import parser.*;
+
+/**
+ * File: BytecodeCompiler.java
+ * 
+ * Compiles parsed forms into bytecode for the Machine. The forms are
+ * the same Atoms and S-Expressions the evaluator works on, and each is
+ * compiled to do exactly what the evaluator would do with it: the
+ * primitives which take evaluated arguments become single instructions,
+ * COND becomes a chain of conditional jumps, QUOTE a constant, and calls
+ * of user-defined functions CALL instructions, or TAILCALL instructions
+ * where the call is in tail position in a function body. Any form which is not in
+ * one of these shapes is handed back to the evaluator with EVAL, so the
+ * two engines never disagree about it.
+ * 
+ * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+ * @since 2026-10-18
+ * @version 2026-10-18
+ *
+ * @see Opcodes
+ */
+
+public final class BytecodeCompiler{
+
+	private static final int QUOTE = Symbols.intern("QUOTE");
+	private static final int COND = Symbols.intern("COND");
+	private static final int DEFUN = Symbols.intern("DEFUN");
+
+	// The opcode, arity and literal flag of each primitive, by the symbol id of its name
+	private static int[] opcodeOf = new int[0];
+	private static int[] arityOf = new int[0];
+	private static boolean[] literalOf = new boolean[0];
+
+	static {
+		primitive("CONS", Opcodes.CONS, 2, false);
+		primitive("CAR", Opcodes.CAR, 1, false);
+		primitive("CDR", Opcodes.CDR, 1, false);
+		primitive("ATOM", Opcodes.ATOM, 1, false);
+		primitive("EQ", Opcodes.EQ, 2, true);
+		primitive("NULL", Opcodes.NULL, 1, false);
+		primitive("INT", Opcodes.INT, 1, true);
+		primitive("PLUS", Opcodes.PLUS, 2, true);
+		primitive("MINUS", Opcodes.MINUS, 2, true);
+		primitive("TIMES", Opcodes.TIMES, 2, true);
+		primitive("QUOTIENT", Opcodes.QUOTIENT, 2, true);
+		primitive("REMAINDER", Opcodes.REMAINDER, 2, true);
+		primitive("LESS", Opcodes.LESS, 2, true);
+		primitive("GREATER", Opcodes.GREATER, 2, true);
+	}
+
+	private int[] code = new int[32];
+	private int length = 0;
+	private ArrayList <Object> constants = new ArrayList <Object> ();
+	private IdentityHashMap <Object, Integer> pool = new IdentityHashMap <Object, Integer> ();
+	private int depth = 0;
+	private int maxDepth = 0;
+
+	private BytecodeCompiler(){}
+
+	/**
+	 * Function: compile
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param f A user-defined function
+	 * 
+	 * @return The bytecode for its body
+	 */
+	public static Chunk compile(UserFunction f){
+		BytecodeCompiler c = new BytecodeCompiler();
+		c.form(f.body(), true, true);
+		c.emit(Opcodes.RETURN);
+		return c.chunk(f.name(), f.arity(), f);
+	}
+
+	/**
+	 * Function: compile
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param statement A top-level statement
+	 * 
+	 * @return The bytecode for the statement
+	 */
+	public static Chunk compile(TreeNode statement){
+		BytecodeCompiler c = new BytecodeCompiler();
+		c.form(statement, false, false);
+		c.emit(Opcodes.RETURN);
+		return c.chunk(null, 0, null);
+	}
+
+	/**
+	 * Function: form
+	 * 
+	 * Emits the code which leaves the value of a form on the stack
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param e The form
+	 * @param flag Whether or not numerals heading the form are taken literally
+	 * @param tail Whether the value of the form is the value of the function
+	 */
+	private void form(TreeNode e, boolean flag, boolean tail){
+		if ( e instanceof Variable ){
+			Variable v = (Variable) e;
+			if ( v.depth() == 0 ){
+				emit(Opcodes.LOAD, v.slot());
+			} else {
+				eval(e, flag);
+			}
+			return;
+		} else if ( !(e instanceof SExpression) ){
+			emit(Opcodes.CONST, constant(e));
+			return;
+		}
+
+		SExpression s = (SExpression) e;
+		if ( s.car() instanceof Variable ){
+			form(s.car(), flag, tail);
+			return;
+		} else if ( !(s.car() instanceof Atom) ){
+			eval(e, flag);
+			return;
+		}
+
+		Atom head = (Atom) s.car();
+		if ( head == Atom.NIL || head == Atom.T || ( flag && head.isNumber() ) ){
+			emit(Opcodes.CONST, constant(head));
+			return;
+		}
+
+		ArrayList <TreeNode> args = arguments(s);
+		int symbol = head.symbol();
+		if ( args == null || head.isNumber() || ( symbol == QUOTE && args.isEmpty() ) ){
+			eval(e, flag);
+		} else if ( symbol == QUOTE ){
+			emit(Opcodes.CONST, constant(args.get(0)));
+		} else if ( symbol == COND ){
+			cond(e, args, flag, tail);
+		} else if ( symbol == DEFUN ){
+			if ( args.isEmpty() ){
+				eval(e, flag);
+			} else {
+				emit(Opcodes.DEFUN, constant(s.cdr()));
+			}
+		} else if ( Primitives.isPrimitive(symbol) ){
+			int op = symbol < opcodeOf.length ? opcodeOf[symbol] : -1;
+			if ( op < 0 || args.size() < arityOf[symbol] ){
+				eval(e, flag);
+				return;
+			}
+			for ( int i = 0; i < arityOf[symbol]; i++ ){
+				form(args.get(i), literalOf[symbol], false);
+			}
+			emit(op);
+		} else {
+			for ( int i = 0; i < args.size(); i++ ){
+				form(args.get(i), false, false);
+			}
+			emit(tail ? Opcodes.TAILCALL : Opcodes.CALL, constant(head.toString()), args.size());
+		}
+	}
+
+	/**
+	 * Function: cond
+	 * 
+	 * Emits each clause as a test, a jump past the clause if the test
+	 * is not T, the result and a jump to the end. Falling off the last
+	 * clause is an error, as it is for the evaluator.
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param e The whole COND form
+	 * @param clauses The clauses of the COND
+	 * @param flag Whether or not numerals heading the form are taken literally
+	 * @param tail Whether the COND is in tail position, and so are its results
+	 */
+	private void cond(TreeNode e, ArrayList <TreeNode> clauses, boolean flag, boolean tail){
+		for ( TreeNode c : clauses ){
+			if ( !(c instanceof SExpression) || !(((SExpression) c).cdr() instanceof SExpression) ){
+				eval(e, flag);
+				return;
+			}
+		}
+
+		int[] exits = new int[clauses.size()];
+		int base = depth;
+		for ( int i = 0; i < exits.length; i++ ){
+			SExpression c = (SExpression) clauses.get(i);
+			form(c.car(), false, false);
+			int skip = emit(Opcodes.JUMP_UNLESS_T, -1);
+			form(((SExpression) c.cdr()).car(), true, tail);
+			exits[i] = emit(Opcodes.JUMP, -1);
+			depth = base;
+			code[skip + 1] = length;
+		}
+		emit(Opcodes.FAIL, constant("Error! No condition in COND was true."));
+		for ( int i = 0; i < exits.length; i++ ){
+			code[exits[i] + 1] = length;
+		}
+		depth = base + 1;
+	}
+
+	/**
+	 * Function: eval
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param e A form to leave to the evaluator
+	 * @param flag Whether or not numerals heading the form are taken literally
+	 */
+	private void eval(TreeNode e, boolean flag){
+		emit(Opcodes.EVAL, constant(e), flag ? 1 : 0);
+	}
+
+	/**
+	 * Function: emit
+	 * 
+	 * Appends an instruction, keeping track of how deep the stack gets
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param op The opcode
+	 * @param operands Its operands
+	 * 
+	 * @return The address of the instruction
+	 */
+	private int emit(int op, int... operands){
+		if ( length + 1 + operands.length > code.length ){
+			code = Arrays.copyOf(code, code.length * 2);
+		}
+		int at = length;
+		code[length++] = op;
+		for ( int operand : operands ){
+			code[length++] = operand;
+		}
+
+		switch ( op ){
+			case Opcodes.CONST: case Opcodes.LOAD: case Opcodes.EVAL: case Opcodes.DEFUN:
+				depth++;
+				break;
+			case Opcodes.CONS: case Opcodes.EQ: case Opcodes.PLUS: case Opcodes.MINUS: case Opcodes.TIMES:
+			case Opcodes.QUOTIENT: case Opcodes.REMAINDER: case Opcodes.LESS: case Opcodes.GREATER:
+			case Opcodes.JUMP_UNLESS_T:
+				depth--;
+				break;
+			case Opcodes.CALL: case Opcodes.TAILCALL:
+				depth -= operands[1] - 1;
+				break;
+		}
+		maxDepth = Math.max(maxDepth, depth);
+		return at;
+	}
+
+	/**
+	 * Function: constant
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param o A constant
+	 * 
+	 * @return Its index in the constant pool
+	 */
+	private int constant(Object o){
+		Integer i = pool.get(o);
+		if ( i == null ){
+			i = constants.size();
+			constants.add(o);
+			pool.put(o, i);
+		}
+		return i;
+	}
+
+	/**
+	 * Function: chunk
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param name The name of the function, or null
+	 * @param arity The number of parameters
+	 * @param source The function compiled, or null
+	 * 
+	 * @return The finished chunk
+	 */
+	private Chunk chunk(String name, int arity, UserFunction source){
+		return new Chunk(name, Arrays.copyOf(code, length), constants.toArray(), arity, arity + maxDepth, source);
+	}
+
+	/**
+	 * Function: arguments
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param s A form
+	 * 
+	 * @return The arguments of the form, or null if they are not a proper list
+	 */
+	private static ArrayList <TreeNode> arguments(SExpression s){
+		ArrayList <TreeNode> args = new ArrayList <TreeNode> ();
+		TreeNode t = s.cdr();
+		while ( t instanceof SExpression ){
+			args.add(((SExpression) t).car());
+			t = ((SExpression) t).cdr();
+		}
+		return t == Atom.NIL ? args : null;
+	}
+
+	/**
+	 * Function: primitive
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param name The name of a primitive
+	 * @param op The opcode it compiles to
+	 * @param arity The number of arguments it takes
+	 * @param literal Whether it takes numerals heading its arguments literally
+	 */
+	private static void primitive(String name, int op, int arity, boolean literal){
+		int id = Symbols.intern(name);
+		if ( id >= opcodeOf.length ){
+			int n = id + 1;
+			int old = opcodeOf.length;
+			opcodeOf = Arrays.copyOf(opcodeOf, n);
+			arityOf = Arrays.copyOf(arityOf, n);
+			literalOf = Arrays.copyOf(literalOf, n);
+			Arrays.fill(opcodeOf, old, n, -1);
+		}
+		opcodeOf[id] = op;
+		arityOf[id] = arity;
+		literalOf[id] = literal;
+	}
+}
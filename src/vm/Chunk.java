@@ -0,0 +1,84 @@
+package vm;
+
+import parser.UserFunction;
+
+/**
+ * File: Chunk.java
+ * 
+ * A compiled unit of bytecode: either the body of a user-defined
+ * function or a single top-level statement.
+ * 
+ * For each constant naming a function it calls, the chunk keeps the
+ * callee the Machine last found for it and the definition epoch at the
+ * time, which serve as the inline cache of the calls using it.
+ * 
+ * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+ * @since 2026-10-18
+ * @version 2026-10-18
+ *
+ * @see Opcodes
+ */
+
+public final class Chunk{
+	final String name;
+	final int[] code;
+	final Object[] constants;
+	final int arity;
+	final int maxStack;
+	final UserFunction source;
+	final Chunk[] linked;
+	final int[] linkedEpoch;
+
+	/**
+	 * Function: Chunk
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param n The name of the function, or null for a statement
+	 * @param c The instructions
+	 * @param k The constant pool
+	 * @param a The number of actual parameters
+	 * @param m The most stack, parameters included, the chunk can use
+	 * @param s The function the chunk was compiled from, or null for a statement
+	 */
+	Chunk(String n, int[] c, Object[] k, int a, int m, UserFunction s){
+		name = n;
+		code = c;
+		constants = k;
+		arity = a;
+		maxStack = m;
+		source = s;
+		linked = new Chunk[k.length];
+		linkedEpoch = new int[k.length];
+	}
+
+	/**
+	 * Function: toString
+	 * 
+	 * Disassembles the chunk, one instruction per line
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @return The listing
+	 */
+	public String toString(){
+		StringBuilder b = new StringBuilder(name == null ? "<statement>" : name).append(":\n");
+		for ( int pc = 0; pc < code.length; ){
+			int op = code[pc];
+			b.append(String.format("%4d  %s", pc, Opcodes.NAMES[op]));
+			for ( int i = 1; i <= Opcodes.OPERANDS[op]; i++ ){
+				b.append(' ').append(code[pc + i]);
+			}
+			if ( op == Opcodes.CONST || op == Opcodes.CALL || op == Opcodes.TAILCALL || op == Opcodes.EVAL || op == Opcodes.DEFUN || op == Opcodes.FAIL ){
+				b.append("\t; ").append(constants[code[pc + 1]]);
+			}
+			b.append('\n');
+			pc += 1 + Opcodes.OPERANDS[op];
+		}
+		return b.toString();
+	}
+}
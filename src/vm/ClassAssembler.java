@@ -0,0 +1,371 @@
+package vm;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * File: ClassAssembler.java
+ * 
+ * Just enough of a class file writer for the JIT: a constant pool,
+ * static fields, and static methods whose code is written an instruction
+ * at a time. Classes are written in version 49 of the format, which
+ * needs no stack map frames; the verifier works the types out itself.
+ * 
+ * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+ * @since 2026-10-18
+ * @version 2026-10-18
+ *
+ * @see Jit
+ */
+
+final class ClassAssembler{
+
+	static final int ACONST_NULL = 0x01;
+	static final int ICONST_0 = 0x03;
+	static final int BIPUSH = 0x10;
+	static final int SIPUSH = 0x11;
+	static final int LDC_W = 0x13;
+	static final int ALOAD = 0x19;
+	static final int AALOAD = 0x32;
+	static final int ASTORE = 0x3a;
+	static final int AASTORE = 0x53;
+	static final int DUP = 0x59;
+	static final int IFEQ = 0x99;
+	static final int IF_ACMPNE = 0xa6;
+	static final int GOTO = 0xa7;
+	static final int ARETURN = 0xb0;
+	static final int RETURN = 0xb1;
+	static final int GETSTATIC = 0xb2;
+	static final int PUTSTATIC = 0xb3;
+	static final int INVOKEVIRTUAL = 0xb6;
+	static final int INVOKESTATIC = 0xb8;
+	static final int ANEWARRAY = 0xbd;
+	static final int ATHROW = 0xbf;
+	static final int CHECKCAST = 0xc0;
+
+	private static final int ACC_PUBLIC = 0x0001;
+	private static final int ACC_STATIC = 0x0008;
+	private static final int ACC_FINAL = 0x0010;
+	private static final int ACC_SUPER = 0x0020;
+
+	private final String name;
+	private final ByteArrayOutputStream pool = new ByteArrayOutputStream();
+	private final DataOutputStream poolOut = new DataOutputStream(pool);
+	private final HashMap <String, Integer> entries = new HashMap <String, Integer> ();
+	private int poolCount = 1;
+	private final ArrayList <int[]> fields = new ArrayList <int[]> ();
+	private final ArrayList <byte[]> methods = new ArrayList <byte[]> ();
+
+	/**
+	 * Function: ClassAssembler
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param n The internal name of the class, eg vm/Compiled
+	 */
+	ClassAssembler(String n){
+		name = n;
+	}
+
+	/**
+	 * Class: Code
+	 * 
+	 * The code of one method, with the stack depth and locals it needs
+	 */
+	final class Code{
+		private byte[] bytes = new byte[256];
+		private int length = 0;
+
+		int length(){
+			return length;
+		}
+
+		void op(int op){
+			u1(op);
+		}
+
+		void op(int op, int u2){
+			u1(op);
+			u2(u2);
+		}
+
+		void push(int i){
+			if ( i >= -1 && i <= 5 ){
+				u1(ICONST_0 + i);
+			} else if ( i >= Byte.MIN_VALUE && i <= Byte.MAX_VALUE ){
+				u1(BIPUSH);
+				u1(i);
+			} else {
+				u1(SIPUSH);
+				u2(i);
+			}
+		}
+
+		void local(int op, int index){
+			u1(op);
+			u1(index);
+		}
+
+		void field(int op, String owner, String n, String descriptor){
+			op(op, reference(9, owner, n, descriptor));
+		}
+
+		void method(int op, String owner, String n, String descriptor){
+			op(op, reference(10, owner, n, descriptor));
+		}
+
+		void type(int op, String internalName){
+			op(op, classEntry(internalName));
+		}
+
+		void string(String s){
+			op(LDC_W, stringEntry(s));
+		}
+
+		// Emits a branch with a placeholder offset, returning where it is to be patched
+		int branch(int op){
+			int at = length;
+			u1(op);
+			u2(0);
+			return at;
+		}
+
+		void patch(int branch, int target){
+			int offset = target - branch;
+			bytes[branch + 1] = (byte) (offset >> 8);
+			bytes[branch + 2] = (byte) offset;
+		}
+
+		private void u1(int b){
+			if ( length == bytes.length ){
+				bytes = java.util.Arrays.copyOf(bytes, length * 2);
+			}
+			bytes[length++] = (byte) b;
+		}
+
+		private void u2(int s){
+			u1(s >> 8);
+			u1(s);
+		}
+	}
+
+	/**
+	 * Function: code
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @return A new, empty method body
+	 */
+	Code code(){
+		return new Code();
+	}
+
+	/**
+	 * Function: field
+	 * 
+	 * Adds a static final field
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param n The name of the field
+	 * @param descriptor Its type descriptor
+	 */
+	void field(String n, String descriptor){
+		fields.add(new int[] { ACC_STATIC | ACC_FINAL, utf8(n), utf8(descriptor) });
+	}
+
+	/**
+	 * Function: method
+	 * 
+	 * Adds a static method
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param n The name of the method
+	 * @param descriptor Its type descriptor
+	 * @param c Its code
+	 * @param maxStack The deepest its operand stack gets
+	 * @param maxLocals The number of local variable slots it uses
+	 */
+	void method(String n, String descriptor, Code c, int maxStack, int maxLocals){
+		try {
+			ByteArrayOutputStream b = new ByteArrayOutputStream();
+			DataOutputStream out = new DataOutputStream(b);
+			out.writeShort(ACC_STATIC | ( n.equals("<clinit>") ? 0 : ACC_PUBLIC ));
+			out.writeShort(utf8(n));
+			out.writeShort(utf8(descriptor));
+			out.writeShort(1);
+			out.writeShort(utf8("Code"));
+			out.writeInt(12 + c.length);
+			out.writeShort(maxStack);
+			out.writeShort(maxLocals);
+			out.writeInt(c.length);
+			out.write(c.bytes, 0, c.length);
+			out.writeShort(0);
+			out.writeShort(0);
+			methods.add(b.toByteArray());
+		} catch (IOException e){
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Function: toBytes
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @return The finished class file
+	 */
+	byte[] toBytes(){
+		try {
+			int thisClass = classEntry(name);
+			int superClass = classEntry("java/lang/Object");
+			ByteArrayOutputStream b = new ByteArrayOutputStream();
+			DataOutputStream out = new DataOutputStream(b);
+			out.writeInt(0xCAFEBABE);
+			out.writeShort(0);
+			out.writeShort(49);
+			out.writeShort(poolCount);
+			pool.writeTo(out);
+			out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+			out.writeShort(thisClass);
+			out.writeShort(superClass);
+			out.writeShort(0);
+			out.writeShort(fields.size());
+			for ( int[] f : fields ){
+				out.writeShort(f[0]);
+				out.writeShort(f[1]);
+				out.writeShort(f[2]);
+				out.writeShort(0);
+			}
+			out.writeShort(methods.size());
+			for ( byte[] m : methods ){
+				out.write(m);
+			}
+			out.writeShort(0);
+			return b.toByteArray();
+		} catch (IOException e){
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Function: utf8
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param s A string
+	 * 
+	 * @return The index of its Utf8 entry in the constant pool
+	 */
+	private int utf8(String s){
+		Integer i = entries.get("U" + s);
+		if ( i != null ){
+			return i;
+		}
+		try {
+			poolOut.writeByte(1);
+			poolOut.writeUTF(s);
+		} catch (IOException e){
+			throw new IllegalStateException(e);
+		}
+		entries.put("U" + s, poolCount);
+		return poolCount++;
+	}
+
+	/**
+	 * Function: classEntry
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param internalName The internal name of a class
+	 * 
+	 * @return The index of its Class entry in the constant pool
+	 */
+	private int classEntry(String internalName){
+		return entry(7, "C" + internalName, utf8(internalName), -1);
+	}
+
+	/**
+	 * Function: stringEntry
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param s A string constant
+	 * 
+	 * @return The index of its String entry in the constant pool
+	 */
+	private int stringEntry(String s){
+		return entry(8, "S" + s, utf8(s), -1);
+	}
+
+	/**
+	 * Function: reference
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param tag 9 for a field, 10 for a method
+	 * @param owner The internal name of the class the member belongs to
+	 * @param n The name of the member
+	 * @param descriptor Its type descriptor
+	 * 
+	 * @return The index of the reference in the constant pool
+	 */
+	private int reference(int tag, String owner, String n, String descriptor){
+		int type = entry(12, "N" + n + ":" + descriptor, utf8(n), utf8(descriptor));
+		return entry(tag, tag + owner + "." + n + ":" + descriptor, classEntry(owner), type);
+	}
+
+	/**
+	 * Function: entry
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param tag The tag of the entry
+	 * @param key What the entry is remembered by
+	 * @param first Its first index operand
+	 * @param second Its second index operand, or -1 if it has one only
+	 * 
+	 * @return The index of the entry in the constant pool
+	 */
+	private int entry(int tag, String key, int first, int second){
+		Integer i = entries.get(key);
+		if ( i != null ){
+			return i;
+		}
+		try {
+			poolOut.writeByte(tag);
+			poolOut.writeShort(first);
+			if ( second >= 0 ){
+				poolOut.writeShort(second);
+			}
+		} catch (IOException e){
+			throw new IllegalStateException(e);
+		}
+		entries.put(key, poolCount);
+		return poolCount++;
+	}
+}
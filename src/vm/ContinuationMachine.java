@@ -0,0 +1,630 @@
+package vm;
+
+import java.util.Arrays;
+import lexer.Symbols;
+import parser.*;
+
+/**
+ * File: ContinuationMachine.java
+ *
+ * An evaluator which never recurses in Java. It works on the parsed
+ * forms directly, as the tree-walking evaluator does, but in the style
+ * of a CEK machine: the machine is always either evaluating a form (the
+ * control) in a frame (the environment), or returning a value to the
+ * innermost continuation. Whatever is left to do once a subform has
+ * been evaluated (apply a primitive, evaluate the next argument, go on
+ * to the next clause of a COND, ...) is pushed as a continuation on a
+ * linked stack on the heap rather than kept in a Java stack frame.
+ *
+ * Entering the body of a user-defined function pushes nothing, so calls
+ * in tail position run in constant space, and any other recursion is
+ * only limited by the memory the continuations may take up. That budget
+ * is given in megabytes by the lisp.cek.budget system property (256
+ * unless given); running out of it, or out of heap altogether, is an
+ * ordinary Lisp error.
+ *
+ * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+ * @since 2026-10-18
+ * @version 2026-10-18
+ */
+
+public class ContinuationMachine{
+
+	private static final int QUOTE = Symbols.intern("QUOTE");
+	private static final int COND = Symbols.intern("COND");
+	private static final int DEFUN = Symbols.intern("DEFUN");
+
+	// A rough size of one continuation with its share of argument arrays, for the budget
+	private static final long CONTINUATION_BYTES = 64;
+
+	// What a continuation does with the value returned to it
+	private static final int HEAD = 0;
+	private static final int ARGUMENT = 1;
+	private static final int FIRST = 2;
+	private static final int SECOND = 3;
+	private static final int TEST = 4;
+	private static final int REMEMBER = 5;
+
+	// The opcode, arity and literal flag of each primitive, by the symbol id of its name
+	private static int[] opcodeOf = new int[0];
+	private static int[] arityOf = new int[0];
+	private static boolean[] literalOf = new boolean[0];
+
+	static {
+		primitive("CONS", Opcodes.CONS, 2, false);
+		primitive("CAR", Opcodes.CAR, 1, false);
+		primitive("CDR", Opcodes.CDR, 1, false);
+		primitive("ATOM", Opcodes.ATOM, 1, false);
+		primitive("EQ", Opcodes.EQ, 2, true);
+		primitive("NULL", Opcodes.NULL, 1, false);
+		primitive("INT", Opcodes.INT, 1, true);
+		primitive("PLUS", Opcodes.PLUS, 2, true);
+		primitive("MINUS", Opcodes.MINUS, 2, true);
+		primitive("TIMES", Opcodes.TIMES, 2, true);
+		primitive("QUOTIENT", Opcodes.QUOTIENT, 2, true);
+		primitive("REMAINDER", Opcodes.REMAINDER, 2, true);
+		primitive("LESS", Opcodes.LESS, 2, true);
+		primitive("GREATER", Opcodes.GREATER, 2, true);
+	}
+
+	/**
+	 * Class: Continuation
+	 *
+	 * One piece of work waiting for a value. Which fields mean anything
+	 * depends on the kind: the form or the rest of a list being worked
+	 * through, the frame to work in, and for a call the function and the
+	 * values gathered so far.
+	 */
+	private static final class Continuation{
+		final int kind;
+		final Continuation next;
+		final Frame env;
+		boolean flag;
+		int op;
+		int index;
+		TreeNode rest;
+		TreeNode value;
+		UserFunction function;
+		TreeNode[] values;
+
+		Continuation(int k, Continuation n, Frame e){
+			kind = k;
+			next = n;
+			env = e;
+		}
+	}
+
+	private final long maxDepth;
+	private final Interpreter session;
+
+	// The registers of the machine
+	private TreeNode control;
+	private boolean flag;
+	private Frame env;
+	private TreeNode value;
+	private boolean returning;
+	private Continuation k;
+	private long depth;
+
+	/**
+	 * Function: ContinuationMachine
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param s The session whose statements the machine runs
+	 */
+	public ContinuationMachine(Interpreter s){
+		this(s, Integer.getInteger("lisp.cek.budget", 256));
+	}
+
+	/**
+	 * Function: ContinuationMachine
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param s The session whose statements the machine runs
+	 * @param megabytes How much memory the continuations may take up
+	 */
+	public ContinuationMachine(Interpreter s, int megabytes){
+		session = s;
+		maxDepth = Math.max(1, ( (long) megabytes << 20 ) / CONTINUATION_BYTES);
+	}
+
+	/**
+	 * Function: evaluate
+	 *
+	 * Reads and runs each top-level statement in turn, printing its value
+	 * to the output of the session, just as the Parser does for the
+	 * tree-walking evaluator
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param p The parser to read statements from
+	 *
+	 * @throws Exception If a statement is malformed or its evaluation fails
+	 */
+	public void evaluate(Parser p) throws Exception{
+		TreeNode t;
+		while ( (t = p.next()) != null ){
+			session.out().println(run(t));
+		}
+	}
+
+	/**
+	 * Function: run
+	 *
+	 * The machine loop. Each turn either takes a step of evaluating the
+	 * control, or hands the value to the innermost continuation; the run
+	 * is over when a value is returned with no continuation left.
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param statement A top-level statement
+	 *
+	 * @return The value of the statement
+	 *
+	 * @throws Exception If evaluation fails or runs out of memory
+	 */
+	public TreeNode run(TreeNode statement) throws Exception{
+		evaluate(statement, false, session.frame());
+		k = null;
+		depth = 0;
+		try {
+			while ( true ){
+				if ( !returning ){
+					step();
+				} else if ( k == null ){
+					return value;
+				} else {
+					Continuation c = k;
+					k = c.next;
+					depth--;
+					resume(c);
+				}
+			}
+		} catch (OutOfMemoryError e){
+			k = null;
+			// Dropping the continuations frees what they held before anything else is made
+			throw new Exception("Error! Out of memory.");
+		} finally {
+			k = null;
+			control = value = null;
+			env = null;
+		}
+	}
+
+	/**
+	 * Function: step
+	 *
+	 * Takes one step of evaluating the control. Variables and atoms have
+	 * their values at once; for a list the head is worked out first,
+	 * since it decides how the rest of the list is evaluated.
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @throws Exception If evaluation fails
+	 */
+	private void step() throws Exception{
+		if ( !(control instanceof SExpression) ){
+			give(control.evaluate(flag, env));
+			return;
+		}
+		SExpression s = (SExpression) control;
+		if ( s.car() instanceof Variable ){
+			give(s.car().evaluate(flag, env));
+		} else if ( s.car() instanceof SExpression ){
+			Continuation c = push(HEAD, env);
+			c.rest = s;
+			c.flag = flag;
+			evaluate(s.car(), false, env);
+		} else {
+			apply(s, s.car(), flag, env);
+		}
+	}
+
+	/**
+	 * Function: resume
+	 *
+	 * Hands the value just worked out to a continuation
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param c The continuation, already popped
+	 *
+	 * @throws Exception If evaluation fails
+	 */
+	private void resume(Continuation c) throws Exception{
+		switch ( c.kind ){
+			case HEAD:
+				apply((SExpression) c.rest, value, c.flag, c.env);
+				break;
+			case ARGUMENT:
+				c.values[c.index++] = value;
+				c.rest = ((SExpression) c.rest).cdr();
+				if ( c.index < c.values.length && c.rest instanceof SExpression ){
+					push(c);
+					evaluate(((SExpression) c.rest).car(), false, c.env);
+				} else {
+					enter(c.function, c.values, c.rest, c.index);
+				}
+				break;
+			case FIRST:
+				if ( arityOf[c.op] == 1 ){
+					give(primitive(opcodeOf[c.op], value));
+				} else {
+					TreeNode second = argument((SExpression) c.rest, 1);
+					Continuation d = push(SECOND, c.env);
+					d.op = c.op;
+					d.value = value;
+					evaluate(second, literalOf[c.op], c.env);
+				}
+				break;
+			case SECOND:
+				give(primitive(opcodeOf[c.op], c.value, value));
+				break;
+			case REMEMBER:
+				c.function.remember(c.values, value);
+				give(value);
+				break;
+			case TEST:
+				if ( value == Atom.T ){
+					evaluate(argument((SExpression) c.value, 1), true, c.env);
+				} else {
+					clause(((SExpression) c.rest).cdr(), c.env);
+				}
+				break;
+		}
+	}
+
+	/**
+	 * Function: apply
+	 *
+	 * Works out a list whose head is known: a numeral taken literally, T
+	 * or NIL, a call of a user-defined function, or a primitive, in that
+	 * order, just as SExpression.evaluate does
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param s The list
+	 * @param head The value of its head
+	 * @param literal Whether or not numerals heading the list are taken literally
+	 * @param e The frame to evaluate the arguments in
+	 *
+	 * @throws Exception If the function is undefined or the arguments are malformed
+	 */
+	private void apply(SExpression s, TreeNode head, boolean literal, Frame e) throws Exception{
+		if ( literal && head instanceof Atom && ((Atom) head).isNumber() ){
+			give(head);
+			return;
+		} else if ( head == Atom.NIL || head == Atom.T ){
+			give(head);
+			return;
+		}
+
+		UserFunction f = head instanceof Atom ? e.environment().getFunction((Atom) head) : e.environment().getFunction(head.toString());
+		if ( f != null ){
+			call(f, s.cdr(), e);
+			return;
+		} else if ( !(s.cdr() instanceof SExpression) ){
+			throw new Exception("Error! Missing arguments to: " + head.toString());
+		}
+
+		SExpression params = (SExpression) s.cdr();
+		int symbol = head.symbol();
+		if ( symbol == QUOTE ){
+			give(params.car());
+		} else if ( symbol == COND ){
+			clause(params, e);
+		} else if ( symbol == DEFUN ){
+			give(Primitives.DEFUN(params, e));
+		} else if ( symbol >= 0 && symbol < opcodeOf.length && opcodeOf[symbol] >= 0 ){
+			Continuation c = push(FIRST, e);
+			c.op = symbol;
+			c.rest = params;
+			evaluate(params.car(), literalOf[symbol], e);
+		} else if ( Primitives.isPrimitive(symbol) ){
+			// The defining forms and the like evaluate nothing, so the evaluator can have them
+			give(s.evaluate(literal, e));
+		} else {
+			throw new Exception("Error! Undefined function: " + head.toString());
+		}
+	}
+
+	/**
+	 * Function: call
+	 *
+	 * Starts a call of a user-defined function by evaluating its first
+	 * actual parameter, or enters it at once if it has none
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param f The function
+	 * @param actuals The list of actual parameters
+	 * @param e The frame of the caller, to evaluate the actuals in
+	 *
+	 * @throws Exception If the actual parameters are not a list
+	 */
+	private void call(UserFunction f, TreeNode actuals, Frame e) throws Exception{
+		TreeNode t = actuals;
+		while ( t instanceof SExpression ){
+			t = ((SExpression) t).cdr();
+		}
+		if ( t != Atom.NIL ){
+			throw new Exception("Error! Invalid parameters to function: " + f.name());
+		}
+
+		TreeNode[] values = new TreeNode[f.arity()];
+		if ( values.length == 0 || !(actuals instanceof SExpression) ){
+			enter(f, values, actuals, 0);
+			return;
+		}
+		Continuation c = push(ARGUMENT, e);
+		c.function = f;
+		c.values = values;
+		c.rest = actuals;
+		evaluate(((SExpression) actuals).car(), false, e);
+	}
+
+	/**
+	 * Function: enter
+	 *
+	 * Enters the body of a function once its actual parameters have been
+	 * evaluated. Nothing is pushed, so the body returns straight to
+	 * whatever the call was to return to, unless the function is memoized
+	 * and its result is to be remembered on the way.
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param f The function
+	 * @param values The values of the actual parameters
+	 * @param rest The actual parameters not evaluated
+	 * @param count The number of actual parameters evaluated
+	 *
+	 * @throws Exception If the number of actual parameters is wrong
+	 */
+	private void enter(UserFunction f, TreeNode[] values, TreeNode rest, int count) throws Exception{
+		if ( count < values.length ){
+			throw new Exception("Error! Too few arguments for: " + f.name());
+		} else if ( rest instanceof SExpression ){
+			throw new Exception("Error! Too many arguments for: " + f.name());
+		}
+		if ( f.isMemoized() ){
+			TreeNode v = f.remembered(values);
+			if ( v != null ){
+				give(v);
+				return;
+			}
+			Continuation c = push(REMEMBER, null);
+			c.function = f;
+			c.values = values;
+		}
+		evaluate(f.body(), true, new Frame(values, f.environment()));
+	}
+
+	/**
+	 * Function: clause
+	 *
+	 * Tries the clauses of a COND from the given one on
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param clauses The clauses still to try
+	 * @param e The frame to evaluate them in
+	 *
+	 * @throws Exception If a clause is malformed or there are none left
+	 */
+	private void clause(TreeNode clauses, Frame e) throws Exception{
+		if ( !(clauses instanceof SExpression) ){
+			throw new Exception("Error! No condition in COND was true.");
+		}
+		TreeNode c = ((SExpression) clauses).car();
+		if ( !(c instanceof SExpression) ){
+			throw new Exception("Error! Not an S-Expression: " + c.toString());
+		}
+		Continuation test = push(TEST, e);
+		test.rest = clauses;
+		test.value = c;
+		evaluate(((SExpression) c).car(), false, e);
+	}
+
+	/**
+	 * Function: evaluate
+	 *
+	 * Sets the machine to evaluating a form
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param form The form
+	 * @param literal Whether or not numerals heading the form are taken literally
+	 * @param e The frame to evaluate it in
+	 */
+	private void evaluate(TreeNode form, boolean literal, Frame e){
+		control = form;
+		flag = literal;
+		env = e;
+		returning = false;
+	}
+
+	/**
+	 * Function: give
+	 *
+	 * Sets the machine to returning a value
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param v The value
+	 */
+	private void give(TreeNode v){
+		value = v;
+		returning = true;
+	}
+
+	/**
+	 * Function: push
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param kind The kind of continuation
+	 * @param e The frame it goes on in, which is not necessarily the
+	 *          frame of the form last evaluated
+	 *
+	 * @return A new continuation of that kind on top of the stack
+	 *
+	 * @throws Exception If the stack is already as large as the budget allows
+	 */
+	private Continuation push(int kind, Frame e) throws Exception{
+		Continuation c = new Continuation(kind, k, e);
+		push(c);
+		return c;
+	}
+
+	/**
+	 * Function: push
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param c A continuation whose next is the top of the stack
+	 *
+	 * @throws Exception If the stack is already as large as the budget allows
+	 */
+	private void push(Continuation c) throws Exception{
+		if ( depth == maxDepth ){
+			throw new Exception("Error! Recursion too deep for the memory budget.");
+		}
+		k = c;
+		depth++;
+	}
+
+	/**
+	 * Function: argument
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param s An argument list in dot-notation
+	 * @param n The index of an argument, counting from zero
+	 *
+	 * @return The n-th element of the list
+	 *
+	 * @throws Exception If the list is too short
+	 */
+	private static TreeNode argument(SExpression s, int n) throws Exception{
+		TreeNode t = s;
+		for ( int i = 0; i < n && t instanceof SExpression; i++ ){
+			t = ((SExpression) t).cdr();
+		}
+		if ( !(t instanceof SExpression) ){
+			throw new Exception("Error! Too few arguments.");
+		}
+		return ((SExpression) t).car();
+	}
+
+	/**
+	 * Function: primitive
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param op The opcode of a primitive of one argument
+	 * @param x The evaluated argument
+	 *
+	 * @return The value of the primitive
+	 *
+	 * @throws Exception If the argument is not acceptable to it
+	 */
+	private static TreeNode primitive(int op, TreeNode x) throws Exception{
+		switch ( op ){
+			case Opcodes.CAR: return Primitives.car(x);
+			case Opcodes.CDR: return Primitives.cdr(x);
+			case Opcodes.ATOM: return Primitives.atom(x);
+			case Opcodes.NULL: return Primitives.isNull(x);
+			default: return Primitives.isInt(x);
+		}
+	}
+
+	/**
+	 * Function: primitive
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param op The opcode of a primitive of two arguments
+	 * @param x The evaluated first argument
+	 * @param y The evaluated second argument
+	 *
+	 * @return The value of the primitive
+	 *
+	 * @throws Exception If the arguments are not acceptable to it
+	 */
+	private static TreeNode primitive(int op, TreeNode x, TreeNode y) throws Exception{
+		switch ( op ){
+			case Opcodes.CONS: return Primitives.cons(x, y);
+			case Opcodes.EQ: return Primitives.eq(x, y);
+			case Opcodes.PLUS: return Primitives.plus(x, y);
+			case Opcodes.MINUS: return Primitives.minus(x, y);
+			case Opcodes.TIMES: return Primitives.times(x, y);
+			case Opcodes.QUOTIENT: return Primitives.quotient(x, y);
+			case Opcodes.REMAINDER: return Primitives.remainder(x, y);
+			case Opcodes.LESS: return Primitives.less(x, y);
+			default: return Primitives.greater(x, y);
+		}
+	}
+
+	/**
+	 * Function: primitive
+	 *
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param name The name of a primitive
+	 * @param op Its opcode
+	 * @param arity The number of arguments it takes
+	 * @param literal Whether it takes numerals heading its arguments literally
+	 */
+	private static void primitive(String name, int op, int arity, boolean literal){
+		int id = Symbols.intern(name);
+		if ( id >= opcodeOf.length ){
+			int n = id + 1;
+			int old = opcodeOf.length;
+			opcodeOf = Arrays.copyOf(opcodeOf, n);
+			arityOf = Arrays.copyOf(arityOf, n);
+			literalOf = Arrays.copyOf(literalOf, n);
+			Arrays.fill(opcodeOf, old, n, -1);
+		}
+		opcodeOf[id] = op;
+		arityOf[id] = arity;
+		literalOf[id] = literal;
+	}
+}
@@ -0,0 +1,227 @@
+package vm;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * File: Differential.java
+ * 
+ * A differential harness for the engines. Each program named on the
+ * command line (or each .lisp file in a directory named there, or in
+ * the cases directory of the repository if none is named) is run
+ * once by every engine, each in a fresh interpreter process, and the
+ * output and exit status of every engine are compared with those of the
+ * first. Any difference is reported along with the first line at which
+ * the outputs part, and the harness exits with status 1.
+ * 
+ * With "-l", every program is run with that library loaded. Whatever is
+ * named, a case of its own is run too: a library whose functions call
+ * one another, and a program which defines a function of the same name
+ * as one of them, which a library function must not then call.
+ * 
+ *	java -cp ./bin vm.Differential [-e tree,vm,cek] [-l library.lisp] [program.lisp ...]
+ * 
+ * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+ * @since 2026-10-18
+ * @version 2026-10-18
+ */
+
+public class Differential{
+
+	/**
+	 * Function: main
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param args "-e" and a comma-separated list of engines, "-l" and a
+	 *             library, then the programs or directories of programs,
+	 *             "cases" unless given
+	 */
+	public static void main(String[] args) throws Exception{
+		String[] engines = { "tree", "vm", "cek" };
+		File library = null;
+		ArrayList <String> names = new ArrayList <String> ();
+		for ( int i = 0; i < args.length; i++ ){
+			if ( args[i].equals("-e") && i + 1 < args.length ){
+				engines = args[++i].split(",");
+			} else if ( args[i].equals("-l") && i + 1 < args.length ){
+				library = new File(args[++i]);
+			} else {
+				names.add(args[i]);
+			}
+		}
+		if ( names.isEmpty() ){
+			names.add("cases");
+		}
+
+		ArrayList <File> programs = new ArrayList <File> ();
+		for ( String name : names ){
+			File f = new File(name);
+			if ( f.isDirectory() ){
+				File[] files = f.listFiles((d, n) -> n.endsWith(".lisp"));
+				Arrays.sort(files);
+				programs.addAll(Arrays.asList(files));
+			} else {
+				programs.add(f);
+			}
+		}
+
+		int failures = 0;
+		for ( File program : programs ){
+			if ( !compare(engines, library, program) ){
+				failures++;
+			}
+		}
+		if ( !shadowedLibrary(engines) ){
+			failures++;
+		}
+
+		System.out.println(( programs.size() + 1 - failures ) + " of " + ( programs.size() + 1 ) + " programs agree");
+		System.exit(failures == 0 ? 0 : 1);
+	}
+
+	/**
+	 * Function: compare
+	 * 
+	 * Runs a program under every engine and reports whether they agree
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param engines The engines, the first of which is the reference
+	 * @param library The library to load first, or null
+	 * @param program The program file
+	 * 
+	 * @return True if every engine gave the same output and exit status
+	 */
+	private static boolean compare(String[] engines, File library, File program) throws IOException, InterruptedException{
+		String expected = run(engines[0], library, program);
+		boolean same = true;
+		for ( int i = 1; i < engines.length; i++ ){
+			String actual = run(engines[i], library, program);
+			if ( !actual.equals(expected) ){
+				same = false;
+				System.out.println("DIFF " + program + ": " + engines[0] + " and " + engines[i] + " disagree");
+				System.out.println(firstDifference(expected, actual));
+			}
+		}
+		if ( same ){
+			System.out.println("OK   " + program);
+		}
+		return same;
+	}
+
+	/**
+	 * Function: shadowedLibrary
+	 * 
+	 * The case run whatever else is: SIZE, in the library, calls LEN,
+	 * also in the library, and the program defines a LEN of its own,
+	 * which SIZE must not call. Every engine must print 3 for SIZE.
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param engines The engines to run the case with
+	 * 
+	 * @return True if every engine gave the right output
+	 */
+	private static boolean shadowedLibrary(String[] engines) throws IOException, InterruptedException{
+		File library = File.createTempFile("library", ".lisp");
+		File program = File.createTempFile("shadow", ".lisp");
+		try{
+			write(library, "(DEFUN LEN (L) (COND ((NULL L) 0) (T (PLUS 1 (LEN (CDR L))))))\n(DEFUN SIZE (L) (LEN L))\n");
+			write(program, "(DEFUN LEN (L) (PLUS 40 2))\n(SIZE (QUOTE (A B C)))\n(LEN (QUOTE (A B C)))\n");
+			String expected = "LEN\n3\n42\nexit 0\n";
+			boolean same = true;
+			for ( String engine : engines ){
+				String actual = run(engine, library, program);
+				if ( !actual.equals(expected) ){
+					same = false;
+					System.out.println("DIFF shadowed library: " + engine + " is wrong");
+					System.out.println(firstDifference(expected, actual));
+				}
+			}
+			if ( same ){
+				System.out.println("OK   shadowed library");
+			}
+			return same;
+		} finally {
+			library.delete();
+			program.delete();
+		}
+	}
+
+	/**
+	 * Function: write
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param f A file
+	 * @param text What to write to it, in place of whatever it held
+	 */
+	private static void write(File f, String text) throws IOException{
+		try ( Writer w = new FileWriter(f) ){
+			w.write(text);
+		}
+	}
+
+	/**
+	 * Function: run
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param engine The engine to run the program with
+	 * @param library The library to load first, or null
+	 * @param program The program file
+	 * 
+	 * @return Everything the interpreter wrote, followed by its exit status
+	 */
+	private static String run(String engine, File library, File program) throws IOException, InterruptedException{
+		String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+		ArrayList <String> command = new ArrayList <String> (Arrays.asList(java, "-cp", System.getProperty("java.class.path"),
+			"LispInterpreter", "-e", engine));
+		if ( library != null ){
+			command.add("-l");
+			command.add(library.getPath());
+		}
+		command.add(program.getPath());
+		ProcessBuilder b = new ProcessBuilder(command);
+		b.redirectErrorStream(true);
+		Process p = b.start();
+		p.getOutputStream().close();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		p.getInputStream().transferTo(out);
+		return out.toString() + "exit " + p.waitFor() + "\n";
+	}
+
+	/**
+	 * Function: firstDifference
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param a One output
+	 * @param b The other output
+	 * 
+	 * @return The first line at which they differ, from each
+	 */
+	private static String firstDifference(String a, String b){
+		String[] x = a.split("\n", -1);
+		String[] y = b.split("\n", -1);
+		int i = 0;
+		while ( i < x.length && i < y.length && x[i].equals(y[i]) ){
+			i++;
+		}
+		return "  line " + ( i + 1 ) + ":\n    " + ( i < x.length ? x[i] : "<end>" ) + "\n    " + ( i < y.length ? y[i] : "<end>" );
+	}
+}
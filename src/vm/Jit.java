@@ -0,0 +1,627 @@
+package vm;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.MutableCallSite;
+import java.util.ArrayList;
+import java.util.HashMap;
+import parser.*;
+
+/**
+ * File: Jit.java
+ * 
+ * The second tier of the tree-walking evaluator. A UserFunction counts
+ * its calls, and once it has been called often enough it asks the JIT
+ * for a compiled version of itself. The body is compiled to bytecode
+ * for the Machine, as usual, and that bytecode is translated instruction
+ * by instruction into a static method of a new hidden JVM class, which
+ * HotSpot can then compile and optimize like any other Java code.
+ * 
+ * Compiled functions call one another through one MutableCallSite per
+ * function name and number of arguments, held in static final fields
+ * of the calling class. Each Environment has sites of its own, so that
+ * sessions defining functions of the same name do not share them, and
+ * compiled code finds its environment through the function it was
+ * compiled from, which is kept in a static field as well. The target
+ * of a site is the compiled function of that name once there is one,
+ * and otherwise a slow path back into the evaluator, so HotSpot can
+ * inline straight through a Lisp call. When a function is redefined
+ * its sites are pointed back at the slow path, which makes the JVM
+ * throw away (deoptimize) any compiled code of its callers which had
+ * inlined the old definition.
+ * 
+ * A call in tail position of the function itself becomes a jump back
+ * to the start of the method; any other call in tail position returns
+ * a pending call to the caller, just as the evaluator does, and the
+ * value of an ordinary call has any pending call in it run before it is
+ * used.
+ * 
+ * The threshold is the number of calls after which a function is
+ * compiled; it is taken from the lisp.jit.threshold system property, or
+ * given with "-j" on the command line, and a threshold of 0 turns the
+ * JIT off.
+ * 
+ * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+ * @since 2026-10-18
+ * @version 2026-10-18
+ *
+ * @see ClassAssembler
+ */
+
+public final class Jit{
+
+	private static final String TREE = "Lparser/TreeNode;";
+	private static final String HANDLE = "Ljava/lang/invoke/MethodHandle;";
+	private static final String FUNCTION = "Lparser/UserFunction;";
+	private static final int MAX_LOCALS = 250;
+	private static final int MAX_CODE = 32767;
+
+	private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+	private static final MethodHandle SLOW_CALL;
+
+	private static int threshold = Integer.getInteger("lisp.jit.threshold", 1000);
+	private static final HashMap <Integer, Object[]> pending = new HashMap <Integer, Object[]> ();
+	private static int classes = 0;
+
+	static {
+		try {
+			SLOW_CALL = LOOKUP.findStatic(Jit.class, "slowCall", MethodType.methodType(TreeNode.class, Environment.class, String.class, TreeNode[].class));
+		} catch (ReflectiveOperationException e){
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	private Jit(){}
+
+	/**
+	 * Class: Sites
+	 * 
+	 * The call sites of the functions of one Environment, by name and
+	 * then by number of arguments. Only the JIT looks inside, and only
+	 * while it holds its own lock.
+	 */
+	public static final class Sites{
+		final HashMap <String, HashMap <Integer, MutableCallSite>> byName = new HashMap <String, HashMap <Integer, MutableCallSite>> ();
+	}
+
+	/**
+	 * Function: threshold
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @return The number of calls after which a function is compiled, or 0 if never
+	 */
+	public static int threshold(){
+		return threshold;
+	}
+
+	/**
+	 * Function: setThreshold
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param t The number of calls after which a function is compiled, or 0 for never
+	 */
+	public static void setThreshold(int t){
+		threshold = Math.max(t, 0);
+	}
+
+	/**
+	 * Function: compile
+	 * 
+	 * Compiles a function to a hidden class and links its call site to
+	 * the result. A function the JIT cannot handle (one with too many
+	 * parameters, say, or a body too large for a single JVM method) is
+	 * simply left to the evaluator.
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param f The function
+	 * 
+	 * @return A handle taking the actual parameters as an array, which it
+	 *         empties, or null if the function was not compiled
+	 */
+	public static synchronized MethodHandle compile(UserFunction f){
+		try {
+			Chunk c = BytecodeCompiler.compile(f);
+			int key = classes++;
+			ArrayList <Object> values = new ArrayList <Object> ();
+			byte[] bytes = assemble(c, "vm/Compiled" + key, values);
+			if ( bytes == null ){
+				return null;
+			}
+			pending.put(key, values.toArray());
+			MethodHandles.Lookup hidden = LOOKUP.defineHiddenClass(bytes, true);
+			pending.remove(key);
+			MethodHandle h = hidden.findStatic(hidden.lookupClass(), "call", type(c.arity));
+			if ( f.environment().getFunction(f.name()) == f ){
+				site(f.environment(), f.name(), f.arity()).setTarget(h);
+			}
+			return hidden.findStatic(hidden.lookupClass(), "enter", MethodType.methodType(TreeNode.class, TreeNode[].class));
+		} catch (ReflectiveOperationException | LinkageError e){
+			return null;
+		}
+	}
+
+	/**
+	 * Function: invalidate
+	 * 
+	 * Points every call site of a function back at the slow path, when
+	 * the function is redefined
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param env The environment the function is defined in
+	 * @param name The name of the function
+	 */
+	public static synchronized void invalidate(Environment env, String name){
+		HashMap <Integer, MutableCallSite> byArity = env.sites().byName.get(name);
+		if ( byArity == null ){
+			return;
+		}
+		for ( Integer argc : byArity.keySet() ){
+			byArity.get(argc).setTarget(slowPath(env, name, argc));
+		}
+	}
+
+	/**
+	 * Function: invoke
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param compiled A handle returned by compile
+	 * @param actuals The values of the actual parameters
+	 * 
+	 * @return The value of the call
+	 * 
+	 * @throws Exception If evaluation fails
+	 */
+	public static TreeNode invoke(MethodHandle compiled, TreeNode[] actuals) throws Exception{
+		try {
+			return (TreeNode) compiled.invokeExact(actuals);
+		} catch (Exception | Error e){
+			throw e;
+		} catch (Throwable t){
+			throw new Exception(t);
+		}
+	}
+
+	/**
+	 * Function: take
+	 * 
+	 * Called from the static initializer of a compiled class
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param key The number of the class
+	 * 
+	 * @return The values of its static fields
+	 */
+	public static synchronized Object[] take(int key){
+		return pending.get(key);
+	}
+
+	/**
+	 * Function: slowCall
+	 * 
+	 * The target of a call site whose function is not compiled
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param env The environment of the calling function
+	 * @param name The name of the function
+	 * @param actuals The values of the actual parameters
+	 * 
+	 * @return The value of the call
+	 * 
+	 * @throws Exception If the function is undefined or evaluation fails
+	 */
+	public static TreeNode slowCall(Environment env, String name, TreeNode[] actuals) throws Exception{
+		UserFunction f = env.getFunction(name);
+		if ( f == null ){
+			throw new Exception("Error! Undefined function: " + name);
+		}
+		return f.invoke(actuals);
+	}
+
+	/**
+	 * Function: eval
+	 * 
+	 * Called from compiled code for a form left to the evaluator
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param f The running function
+	 * @param form The form
+	 * @param flag 1 if numerals heading the form are taken literally
+	 * @param locals The values of the parameters of the running function
+	 * 
+	 * @return The value of the form
+	 * 
+	 * @throws Exception If evaluation fails
+	 */
+	public static TreeNode eval(UserFunction f, TreeNode form, int flag, TreeNode[] locals) throws Exception{
+		return form.evaluate(flag == 1, new Frame(locals, f.environment()));
+	}
+
+	/**
+	 * Function: define
+	 * 
+	 * Called from compiled code for a DEFUN in the body
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param f The running function
+	 * @param form The arguments of the DEFUN
+	 * 
+	 * @return The name of the function defined
+	 * 
+	 * @throws Exception If the definition is malformed
+	 */
+	public static TreeNode define(UserFunction f, SExpression form) throws Exception{
+		return Primitives.DEFUN(form, new Frame(new TreeNode[0], f.environment()));
+	}
+
+	/**
+	 * Function: fail
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param message The error message
+	 * 
+	 * @return The error for compiled code to throw
+	 */
+	public static Exception fail(String message){
+		return new Exception(message);
+	}
+
+	/**
+	 * Function: assemble
+	 * 
+	 * Translates a chunk into a class with a static method, "call",
+	 * taking the actual parameters as its arguments, and another,
+	 * "enter", taking them as an array, which the evaluator calls.
+	 * Each instruction of
+	 * the chunk becomes one or a few JVM instructions, and the operand
+	 * stack of the machine is simply the operand stack of the JVM.
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param c The chunk
+	 * @param className The internal name of the class to make
+	 * @param values Filled in with the values of the static fields of the class
+	 * 
+	 * @return The class file, or null if the chunk cannot be translated
+	 */
+	private static byte[] assemble(Chunk c, String className, ArrayList <Object> values){
+		ClassAssembler a = new ClassAssembler(className);
+		ClassAssembler.Code m = a.code();
+		int[] code = c.code;
+		int[] offsets = new int[code.length + 1];
+		ArrayList <int[]> branches = new ArrayList <int[]> ();
+		HashMap <Integer, String> constantFields = new HashMap <Integer, String> ();
+		HashMap <String, String> siteFields = new HashMap <String, String> ();
+		ArrayList <String> fields = new ArrayList <String> ();
+		int temps = 0;
+
+		// The function itself, for its environment and to tell whether it is still the definition
+		a.field("S", FUNCTION);
+		fields.add("S");
+		values.add(c.source);
+
+		for ( int pc = 0; pc < code.length; ){
+			int op = code[pc];
+			offsets[pc] = m.length();
+			switch ( op ){
+				case Opcodes.CONST:
+					m.field(ClassAssembler.GETSTATIC, className, constantField(a, c, code[pc + 1], constantFields, fields, values), TREE);
+					break;
+				case Opcodes.LOAD:
+					m.local(ClassAssembler.ALOAD, code[pc + 1]);
+					break;
+				case Opcodes.CAR: case Opcodes.CDR: case Opcodes.ATOM: case Opcodes.NULL: case Opcodes.INT:
+					m.method(ClassAssembler.INVOKESTATIC, "parser/Primitives", primitive(op), "(" + TREE + ")" + TREE);
+					break;
+				case Opcodes.CONS: case Opcodes.EQ: case Opcodes.PLUS: case Opcodes.MINUS: case Opcodes.TIMES:
+				case Opcodes.QUOTIENT: case Opcodes.REMAINDER: case Opcodes.LESS: case Opcodes.GREATER:
+					m.method(ClassAssembler.INVOKESTATIC, "parser/Primitives", primitive(op), "(" + TREE + TREE + ")" + TREE);
+					break;
+				case Opcodes.JUMP_UNLESS_T:
+					m.field(ClassAssembler.GETSTATIC, "parser/Atom", "T", "Lparser/Atom;");
+					branches.add(new int[] { m.branch(ClassAssembler.IF_ACMPNE), code[pc + 1] });
+					break;
+				case Opcodes.JUMP:
+					branches.add(new int[] { m.branch(ClassAssembler.GOTO), code[pc + 1] });
+					break;
+				case Opcodes.CALL: {
+					String name = (String) c.constants[code[pc + 1]];
+					int argc = code[pc + 2];
+					temps = Math.max(temps, argc);
+					if ( c.arity + temps > MAX_LOCALS ){
+						return null;
+					}
+					// The handle has to go under the arguments, so park them in locals for a moment
+					park(m, c.arity, argc);
+					String field = siteFields.get(name + "/" + argc);
+					if ( field == null ){
+						field = "H" + siteFields.size();
+						siteFields.put(name + "/" + argc, field);
+						a.field(field, HANDLE);
+						fields.add(field);
+						values.add(site(c.source.environment(), name, argc).dynamicInvoker());
+					}
+					m.field(ClassAssembler.GETSTATIC, className, field, HANDLE);
+					for ( int i = 0; i < argc; i++ ){
+						m.local(ClassAssembler.ALOAD, c.arity + i);
+					}
+					m.method(ClassAssembler.INVOKEVIRTUAL, "java/lang/invoke/MethodHandle", "invokeExact", type(argc).toMethodDescriptorString());
+					m.method(ClassAssembler.INVOKESTATIC, "parser/UserFunction", "settle", "(" + TREE + ")" + TREE);
+					break;
+				}
+				case Opcodes.TAILCALL: {
+					String name = (String) c.constants[code[pc + 1]];
+					int argc = code[pc + 2];
+					temps = Math.max(temps, argc);
+					if ( c.arity + temps > MAX_LOCALS ){
+						return null;
+					}
+					park(m, c.arity, argc);
+					if ( name.equals(c.name) && argc == c.arity ){
+						// A self call in tail position is a loop, for as long as this is still the definition
+						m.field(ClassAssembler.GETSTATIC, className, "S", FUNCTION);
+						m.method(ClassAssembler.INVOKEVIRTUAL, "parser/UserFunction", "isCurrent", "()Z");
+						int redefined = m.branch(ClassAssembler.IFEQ);
+						for ( int i = 0; i < argc; i++ ){
+							m.local(ClassAssembler.ALOAD, c.arity + i);
+							m.local(ClassAssembler.ASTORE, i);
+						}
+						m.patch(m.branch(ClassAssembler.GOTO), 0);
+						m.patch(redefined, m.length());
+					}
+					m.field(ClassAssembler.GETSTATIC, className, "S", FUNCTION);
+					m.string(name);
+					m.push(argc);
+					m.type(ClassAssembler.ANEWARRAY, "parser/TreeNode");
+					for ( int i = 0; i < argc; i++ ){
+						m.op(ClassAssembler.DUP);
+						m.push(i);
+						m.local(ClassAssembler.ALOAD, c.arity + i);
+						m.op(ClassAssembler.AASTORE);
+					}
+					m.method(ClassAssembler.INVOKEVIRTUAL, "parser/UserFunction", "tailCall", "(Ljava/lang/String;[" + TREE + ")" + TREE);
+					break;
+				}
+				case Opcodes.RETURN:
+					m.op(ClassAssembler.ARETURN);
+					break;
+				case Opcodes.EVAL:
+					m.field(ClassAssembler.GETSTATIC, className, "S", FUNCTION);
+					m.field(ClassAssembler.GETSTATIC, className, constantField(a, c, code[pc + 1], constantFields, fields, values), TREE);
+					m.push(code[pc + 2]);
+					m.push(c.arity);
+					m.type(ClassAssembler.ANEWARRAY, "parser/TreeNode");
+					for ( int i = 0; i < c.arity; i++ ){
+						m.op(ClassAssembler.DUP);
+						m.push(i);
+						m.local(ClassAssembler.ALOAD, i);
+						m.op(ClassAssembler.AASTORE);
+					}
+					m.method(ClassAssembler.INVOKESTATIC, "vm/Jit", "eval", "(" + FUNCTION + TREE + "I[" + TREE + ")" + TREE);
+					break;
+				case Opcodes.DEFUN:
+					m.field(ClassAssembler.GETSTATIC, className, "S", FUNCTION);
+					m.field(ClassAssembler.GETSTATIC, className, constantField(a, c, code[pc + 1], constantFields, fields, values), TREE);
+					m.type(ClassAssembler.CHECKCAST, "parser/SExpression");
+					m.method(ClassAssembler.INVOKESTATIC, "vm/Jit", "define", "(" + FUNCTION + "Lparser/SExpression;)" + TREE);
+					break;
+				case Opcodes.FAIL:
+					m.string((String) c.constants[code[pc + 1]]);
+					m.method(ClassAssembler.INVOKESTATIC, "vm/Jit", "fail", "(Ljava/lang/String;)Ljava/lang/Exception;");
+					m.op(ClassAssembler.ATHROW);
+					break;
+				default:
+					return null;
+			}
+			pc += 1 + Opcodes.OPERANDS[op];
+			offsets[pc] = m.length();
+		}
+
+		for ( int[] b : branches ){
+			m.patch(b[0], offsets[b[1]]);
+		}
+		if ( m.length() > MAX_CODE ){
+			return null;
+		}
+
+		// Operands of the machine, plus the most the translation of one instruction adds to them
+		a.method("call", type(c.arity).toMethodDescriptorString(), m, c.maxStack - c.arity + 6, c.arity + temps);
+
+		// The entry from the evaluator moves the actuals out of their array, emptying it, so that only the running code holds them
+		ClassAssembler.Code entry = a.code();
+		for ( int i = 0; i < c.arity; i++ ){
+			entry.local(ClassAssembler.ALOAD, 0);
+			entry.push(i);
+			entry.op(ClassAssembler.AALOAD);
+		}
+		for ( int i = 0; i < c.arity; i++ ){
+			entry.local(ClassAssembler.ALOAD, 0);
+			entry.push(i);
+			entry.op(ClassAssembler.ACONST_NULL);
+			entry.op(ClassAssembler.AASTORE);
+		}
+		entry.op(ClassAssembler.ACONST_NULL);
+		entry.local(ClassAssembler.ASTORE, 0);
+		entry.method(ClassAssembler.INVOKESTATIC, className, "call", type(c.arity).toMethodDescriptorString());
+		entry.op(ClassAssembler.ARETURN);
+		a.method("enter", "([" + TREE + ")" + TREE, entry, c.arity + 3, 1);
+
+		ClassAssembler.Code init = a.code();
+		init.push(Integer.parseInt(className.substring("vm/Compiled".length())));
+		init.method(ClassAssembler.INVOKESTATIC, "vm/Jit", "take", "(I)[Ljava/lang/Object;");
+		init.local(ClassAssembler.ASTORE, 0);
+		for ( int i = 0; i < values.size(); i++ ){
+			String field = fields.get(i);
+			String descriptor = field.startsWith("H") ? HANDLE : field.equals("S") ? FUNCTION : TREE;
+			init.local(ClassAssembler.ALOAD, 0);
+			init.push(i);
+			init.op(ClassAssembler.AALOAD);
+			init.type(ClassAssembler.CHECKCAST, descriptor.substring(1, descriptor.length() - 1));
+			init.field(ClassAssembler.PUTSTATIC, className, field, descriptor);
+		}
+		init.op(ClassAssembler.RETURN);
+		a.method("<clinit>", "()V", init, 3, 1);
+		return a.toBytes();
+	}
+
+	/**
+	 * Function: constantField
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @return The name of the static field holding a constant of the chunk, added if need be
+	 */
+	private static String constantField(ClassAssembler a, Chunk c, int index, HashMap <Integer, String> byIndex, ArrayList <String> fields, ArrayList <Object> values){
+		String field = byIndex.get(index);
+		if ( field == null ){
+			field = "K" + byIndex.size();
+			byIndex.put(index, field);
+			a.field(field, TREE);
+			fields.add(field);
+			values.add(c.constants[index]);
+		}
+		return field;
+	}
+
+	/**
+	 * Function: park
+	 * 
+	 * Stores the arguments of a call, from the top of the stack, in the
+	 * locals following the parameters
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param m The code being assembled
+	 * @param first The first local to use
+	 * @param argc The number of arguments
+	 */
+	private static void park(ClassAssembler.Code m, int first, int argc){
+		for ( int i = argc - 1; i >= 0; i-- ){
+			m.local(ClassAssembler.ASTORE, first + i);
+		}
+	}
+
+	/**
+	 * Function: primitive
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param op The opcode of a primitive
+	 * 
+	 * @return The name of its value-level method in Primitives
+	 */
+	private static String primitive(int op){
+		switch ( op ){
+			case Opcodes.CAR: return "car";
+			case Opcodes.CDR: return "cdr";
+			case Opcodes.ATOM: return "atom";
+			case Opcodes.NULL: return "isNull";
+			case Opcodes.INT: return "isInt";
+			case Opcodes.CONS: return "cons";
+			case Opcodes.EQ: return "eq";
+			case Opcodes.PLUS: return "plus";
+			case Opcodes.MINUS: return "minus";
+			case Opcodes.TIMES: return "times";
+			case Opcodes.QUOTIENT: return "quotient";
+			case Opcodes.REMAINDER: return "remainder";
+			case Opcodes.LESS: return "less";
+			default: return "greater";
+		}
+	}
+
+	/**
+	 * Function: site
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param env The environment the function is called in
+	 * @param name The name of a function
+	 * @param argc The number of arguments it is called with
+	 * 
+	 * @return The call site for such calls, made if need be
+	 */
+	private static MutableCallSite site(Environment env, String name, int argc){
+		HashMap <Integer, MutableCallSite> byArity = env.sites().byName.get(name);
+		if ( byArity == null ){
+			byArity = new HashMap <Integer, MutableCallSite> ();
+			env.sites().byName.put(name, byArity);
+		}
+		MutableCallSite s = byArity.get(argc);
+		if ( s == null ){
+			s = new MutableCallSite(slowPath(env, name, argc));
+			byArity.put(argc, s);
+		}
+		return s;
+	}
+
+	/**
+	 * Function: slowPath
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @return A handle which calls the named function of the environment
+	 *         through the evaluator
+	 */
+	private static MethodHandle slowPath(Environment env, String name, int argc){
+		return MethodHandles.insertArguments(SLOW_CALL, 0, env, name).asCollector(TreeNode[].class, argc);
+	}
+
+	/**
+	 * Function: type
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param arity A number of parameters
+	 * 
+	 * @return The type of a compiled function of that many parameters
+	 */
+	private static MethodType type(int arity){
+		Class <?>[] params = new Class <?> [arity];
+		java.util.Arrays.fill(params, TreeNode.class);
+		return MethodType.methodType(TreeNode.class, params);
+	}
+}
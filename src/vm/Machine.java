@@ -0,0 +1,409 @@
+package vm;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import parser.*;
+
+/**
+ * File: Machine.java
+ * 
+ * The virtual machine which runs compiled bytecode. Everything lives in
+ * arrays: an operand stack, whose lower part for each call holds that
+ * call's actual parameters, and a stack of return addresses. They start
+ * small, so that a machine for each of thousands of sessions costs
+ * little, and are doubled as deeper recursion needs them, up to a fixed
+ * limit. A call of a user-defined function is just a jump into its
+ * chunk, so running a program never recurses in Java, however deep its
+ * own recursion goes.
+ * 
+ * User-defined functions are still defined, and looked up, in an
+ * Environment: a statement calls the functions of the session the
+ * machine runs, and a function calls those of the environment it was
+ * defined in, so a library function never sees a session's own. The
+ * machine keeps the bytecode for each function it has run, and compiles
+ * a new definition afresh. Each call instruction remembers the callee it
+ * found until the next definition of any function in that environment,
+ * so calls in a steady state look nothing up. A call of a memoized
+ * function is handed to the function itself, which looks in its cache
+ * before running anything.
+ * 
+ * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+ * @since 2026-10-18
+ * @version 2026-10-18
+ *
+ * @see BytecodeCompiler
+ */
+
+public class Machine{
+
+	private static final int STACK_SIZE = 1 << 20;
+	private static final int MAX_CALLS = 1 << 18;
+
+	private TreeNode[] stack = new TreeNode[1 << 8];
+	private Chunk[] returnChunk = new Chunk[1 << 6];
+	private int[] returnPc = new int[1 << 6];
+	private int[] returnFp = new int[1 << 6];
+	private final HashMap <UserFunction, Chunk> functions = new HashMap <UserFunction, Chunk> ();
+	private final Interpreter session;
+
+	/**
+	 * Function: Machine
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param s The session whose statements the machine runs
+	 */
+	public Machine(Interpreter s){
+		session = s;
+	}
+
+	/**
+	 * Function: evaluate
+	 * 
+	 * Reads, compiles and runs each top-level statement in turn, printing
+	 * its value to the output of the session, just as the Parser does for
+	 * the tree-walking evaluator
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param p The parser to read statements from
+	 * 
+	 * @throws Exception If a statement is malformed or its evaluation fails
+	 */
+	public void evaluate(Parser p) throws Exception{
+		TreeNode t;
+		while ( (t = p.next()) != null ){
+			session.out().println(run(t));
+		}
+	}
+
+	/**
+	 * Function: run
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param statement A top-level statement
+	 * 
+	 * @return The value of the statement, compiled and run
+	 * 
+	 * @throws Exception If the statement is malformed or its evaluation fails
+	 */
+	public TreeNode run(TreeNode statement) throws Exception{
+		return run(BytecodeCompiler.compile(statement));
+	}
+
+	/**
+	 * Function: run
+	 * 
+	 * The interpreter loop. The current chunk, its code and constants, the
+	 * program counter, the frame pointer and the stack pointer are all
+	 * locals, and are saved to the return stack only across a CALL. A
+	 * TAILCALL saves nothing: it reuses the frame of the running function.
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param statement A compiled top-level statement
+	 * 
+	 * @return The value of the statement
+	 * 
+	 * @throws Exception If evaluation fails
+	 */
+	public TreeNode run(Chunk statement) throws Exception{
+		TreeNode[] s = stack;
+		Chunk chunk = statement;
+		int[] code = chunk.code;
+		Object[] constants = chunk.constants;
+		int pc = 0;
+		int fp = 0;
+		int sp = 0;
+		int calls = 0;
+		TreeNode x;
+
+		if ( chunk.maxStack > STACK_SIZE ){
+			throw new Exception("Error! Stack overflow.");
+		} else if ( chunk.maxStack > s.length ){
+			s = growStack(chunk.maxStack);
+		}
+
+		while ( true ){
+			switch ( code[pc++] ){
+				case Opcodes.CONST:
+					s[sp++] = (TreeNode) constants[code[pc++]];
+					break;
+				case Opcodes.LOAD:
+					s[sp++] = s[fp + code[pc++]];
+					break;
+
+				case Opcodes.CAR:
+					s[sp - 1] = Primitives.car(s[sp - 1]);
+					break;
+				case Opcodes.CDR:
+					s[sp - 1] = Primitives.cdr(s[sp - 1]);
+					break;
+				case Opcodes.ATOM:
+					s[sp - 1] = Primitives.atom(s[sp - 1]);
+					break;
+				case Opcodes.NULL:
+					s[sp - 1] = Primitives.isNull(s[sp - 1]);
+					break;
+				case Opcodes.INT:
+					s[sp - 1] = Primitives.isInt(s[sp - 1]);
+					break;
+				case Opcodes.CONS:
+					x = s[--sp];
+					s[sp - 1] = Primitives.cons(s[sp - 1], x);
+					break;
+				case Opcodes.EQ:
+					x = s[--sp];
+					s[sp - 1] = Primitives.eq(s[sp - 1], x);
+					break;
+				case Opcodes.PLUS:
+					x = s[--sp];
+					s[sp - 1] = Primitives.plus(s[sp - 1], x);
+					break;
+				case Opcodes.MINUS:
+					x = s[--sp];
+					s[sp - 1] = Primitives.minus(s[sp - 1], x);
+					break;
+				case Opcodes.TIMES:
+					x = s[--sp];
+					s[sp - 1] = Primitives.times(s[sp - 1], x);
+					break;
+				case Opcodes.QUOTIENT:
+					x = s[--sp];
+					s[sp - 1] = Primitives.quotient(s[sp - 1], x);
+					break;
+				case Opcodes.REMAINDER:
+					x = s[--sp];
+					s[sp - 1] = Primitives.remainder(s[sp - 1], x);
+					break;
+				case Opcodes.LESS:
+					x = s[--sp];
+					s[sp - 1] = Primitives.less(s[sp - 1], x);
+					break;
+				case Opcodes.GREATER:
+					x = s[--sp];
+					s[sp - 1] = Primitives.greater(s[sp - 1], x);
+					break;
+
+				case Opcodes.JUMP_UNLESS_T:
+					pc = s[--sp] == Atom.T ? pc + 1 : code[pc];
+					break;
+				case Opcodes.JUMP:
+					pc = code[pc];
+					break;
+
+				case Opcodes.CALL: {
+					String name = (String) constants[code[pc]];
+					Chunk callee = link(chunk, code[pc++]);
+					int argc = code[pc++];
+					if ( argc < callee.arity ){
+						throw new Exception("Error! Too few arguments for: " + name);
+					} else if ( argc > callee.arity ){
+						throw new Exception("Error! Too many arguments for: " + name);
+					} else if ( callee.source.isMemoized() ){
+						sp -= argc;
+						s[sp] = callee.source.invoke(Arrays.copyOfRange(s, sp, sp + argc));
+						sp++;
+						break;
+					} else if ( calls == MAX_CALLS || sp - argc + callee.maxStack > STACK_SIZE ){
+						throw new Exception("Error! Stack overflow.");
+					} else if ( sp - argc + callee.maxStack > s.length ){
+						s = growStack(sp - argc + callee.maxStack);
+					}
+					if ( calls == returnPc.length ){
+						growCalls();
+					}
+					returnChunk[calls] = chunk;
+					returnPc[calls] = pc;
+					returnFp[calls] = fp;
+					calls++;
+					chunk = callee;
+					code = chunk.code;
+					constants = chunk.constants;
+					fp = sp - argc;
+					pc = 0;
+					break;
+				}
+				case Opcodes.TAILCALL: {
+					String name = (String) constants[code[pc]];
+					Chunk callee = link(chunk, code[pc++]);
+					int argc = code[pc++];
+					if ( argc < callee.arity ){
+						throw new Exception("Error! Too few arguments for: " + name);
+					} else if ( argc > callee.arity ){
+						throw new Exception("Error! Too many arguments for: " + name);
+					} else if ( callee.source.isMemoized() ){
+						// Made like an ordinary call; the instructions after it return its value
+						sp -= argc;
+						s[sp] = callee.source.invoke(Arrays.copyOfRange(s, sp, sp + argc));
+						sp++;
+						break;
+					} else if ( fp + callee.maxStack > STACK_SIZE ){
+						throw new Exception("Error! Stack overflow.");
+					} else if ( fp + callee.maxStack > s.length ){
+						s = growStack(fp + callee.maxStack);
+					}
+					// The actuals replace the frame of the running function, which returns nowhere now
+					System.arraycopy(s, sp - argc, s, fp, argc);
+					sp = fp + argc;
+					chunk = callee;
+					code = chunk.code;
+					constants = chunk.constants;
+					pc = 0;
+					break;
+				}
+				case Opcodes.RETURN:
+					x = s[sp - 1];
+					if ( calls == 0 ){
+						return x;
+					}
+					calls--;
+					sp = fp;
+					chunk = returnChunk[calls];
+					code = chunk.code;
+					constants = chunk.constants;
+					pc = returnPc[calls];
+					fp = returnFp[calls];
+					s[sp++] = x;
+					break;
+
+				case Opcodes.EVAL: {
+					TreeNode form = (TreeNode) constants[code[pc++]];
+					boolean flag = code[pc++] == 1;
+					Frame f = chunk.source == null ? session.frame() : new Frame(Arrays.copyOfRange(s, fp, fp + chunk.arity), chunk.source.environment());
+					s[sp++] = form.evaluate(flag, f);
+					break;
+				}
+				case Opcodes.DEFUN:
+					s[sp++] = Primitives.DEFUN((SExpression) constants[code[pc++]], chunk.source == null ? session.frame() : new Frame(new TreeNode[0], chunk.source.environment()));
+					break;
+				case Opcodes.FAIL:
+					throw new Exception((String) constants[code[pc++]]);
+
+				default:
+					throw new Exception("Error! Bad opcode " + code[pc - 1] + " in " + chunk.name);
+			}
+		}
+	}
+
+	/**
+	 * Function: growStack
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param needed The size the operand stack must have, at most STACK_SIZE
+	 * 
+	 * @return The operand stack, doubled until it is at least that size
+	 */
+	private TreeNode[] growStack(int needed){
+		int size = stack.length;
+		while ( size < needed ){
+			size <<= 1;
+		}
+		stack = Arrays.copyOf(stack, Math.min(size, STACK_SIZE));
+		return stack;
+	}
+
+	/**
+	 * Function: growCalls
+	 * 
+	 * Doubles the stack of return addresses, which is full
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 */
+	private void growCalls(){
+		int size = Math.min(returnPc.length << 1, MAX_CALLS);
+		returnChunk = Arrays.copyOf(returnChunk, size);
+		returnPc = Arrays.copyOf(returnPc, size);
+		returnFp = Arrays.copyOf(returnFp, size);
+	}
+
+	/**
+	 * Function: environment
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param chunk A chunk being run
+	 * 
+	 * @return The environment the functions it calls are looked up in:
+	 *         that of the function it was compiled from, or the session's
+	 *         for a statement
+	 */
+	private Environment environment(Chunk chunk){
+		return chunk.source == null ? session.environment() : chunk.source.environment();
+	}
+
+	/**
+	 * Function: link
+	 * 
+	 * The inline cache of a call instruction: the callee found for it is
+	 * kept in the calling chunk, along with the definition epoch at the
+	 * time, and is used again without a lookup until a function is
+	 * defined in the environment it was found in
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param chunk The chunk making the call
+	 * @param k The index in its constant pool of the name called
+	 * 
+	 * @return The bytecode of the current definition of the function called
+	 * 
+	 * @throws Exception If no function of that name is defined
+	 */
+	private Chunk link(Chunk chunk, int k) throws Exception{
+		Environment e = environment(chunk);
+		int now = e.epoch();
+		Chunk c = chunk.linked[k];
+		if ( c == null || chunk.linkedEpoch[k] != now ){
+			c = function(e, (String) chunk.constants[k]);
+			chunk.linked[k] = c;
+			chunk.linkedEpoch[k] = now;
+		}
+		return c;
+	}
+
+	/**
+	 * Function: function
+	 * 
+	 * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+	 * @since 2026-10-18
+	 * @version 2026-10-18
+	 *
+	 * @param e The environment to look the function up in
+	 * @param name The name of a user-defined function
+	 * 
+	 * @return The bytecode of its current definition there
+	 * 
+	 * @throws Exception If no function of that name is defined
+	 */
+	private Chunk function(Environment e, String name) throws Exception{
+		UserFunction f = e.getFunction(name);
+		if ( f == null ){
+			throw new Exception("Error! Undefined function: " + name);
+		}
+		// Keyed by definition, since a library function and a session's own may share a name
+		Chunk c = functions.get(f);
+		if ( c == null ){
+			c = BytecodeCompiler.compile(f);
+			functions.put(f, c);
+		}
+		return c;
+	}
+}
@@ -0,0 +1,68 @@
+package vm;
+
+/**
+ * File: Opcodes.java
+ * 
+ * The instruction set of the virtual machine. Code is a flat array of
+ * ints: each instruction is its opcode followed by its operands, if it
+ * has any. Values are kept on an operand stack, and the actual
+ * parameters of a call sit at the bottom of its part of that stack,
+ * where LOAD finds them.
+ * 
+ *	CONST k		push constant k
+ *	LOAD i		push local i
+ *	CONS .. GREATER	pop the arguments of the primitive, push its value
+ *	JUMP_UNLESS_T a	pop a value and jump to a unless it is T
+ *	JUMP a		jump to a
+ *	CALL k n	call the user-defined function named by constant k with
+ *			the n values on top of the stack
+ *	TAILCALL k n	the same, but in place of the running function: a
+ *			call in tail position, which does not return here
+ *	RETURN		return the value on top of the stack
+ *	EVAL k f	evaluate constant k with the tree-walking evaluator, taking
+ *			numerals literally if f is 1
+ *	DEFUN k		define a function from the argument list in constant k
+ *	FAIL k		raise an error with the message in constant k
+ * 
+ * @author Joseph T. Anderson <jtanderson@ratiocaeli.com>
+ * @since 2026-10-18
+ * @version 2026-10-18
+ */
+
+public final class Opcodes{
+	public static final int CONST = 0;
+	public static final int LOAD = 1;
+
+	public static final int CONS = 2;
+	public static final int CAR = 3;
+	public static final int CDR = 4;
+	public static final int ATOM = 5;
+	public static final int EQ = 6;
+	public static final int NULL = 7;
+	public static final int INT = 8;
+	public static final int PLUS = 9;
+	public static final int MINUS = 10;
+	public static final int TIMES = 11;
+	public static final int QUOTIENT = 12;
+	public static final int REMAINDER = 13;
+	public static final int LESS = 14;
+	public static final int GREATER = 15;
+
+	public static final int JUMP_UNLESS_T = 16;
+	public static final int JUMP = 17;
+	public static final int CALL = 18;
+	public static final int RETURN = 19;
+	public static final int EVAL = 20;
+	public static final int DEFUN = 21;
+	public static final int FAIL = 22;
+	public static final int TAILCALL = 23;
+
+	static final String[] NAMES = { "CONST", "LOAD", "CONS", "CAR", "CDR", "ATOM", "EQ", "NULL", "INT",
+		"PLUS", "MINUS", "TIMES", "QUOTIENT", "REMAINDER", "LESS", "GREATER",
+		"JUMP_UNLESS_T", "JUMP", "CALL", "RETURN", "EVAL", "DEFUN", "FAIL", "TAILCALL" };
+
+	// The number of operands following each opcode
+	static final int[] OPERANDS = { 1, 1, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 1, 1, 2, 0, 2, 1, 1, 2 };
+
+	private Opcodes(){}
+}